@@ -1,16 +1,23 @@
 package com.phroque.livrosapi;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.dto.LoanMapper;
+
 @SpringBootApplication
 public class LivrosApplication {
 
 	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
+	public BookMapper bookMapper() {
+		return new BookMapper();
+	}
+	
+	@Bean
+	public LoanMapper loanMapper() {
+		return new LoanMapper();
 	}
 	
 	public static void main(String[] args) {
@@ -0,0 +1,51 @@
+package com.phroque.livrosapi.config;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.phroque.livrosapi.config.AdmissionControlFilter.Group;
+
+/**
+ * Rate and concurrency limits of the API ({@code livros.admission.*}), by
+ * endpoint group: {@code loans} for {@code /api/loans}, {@code search} for
+ * the other reads and {@code writes} for the other writes, plus
+ * {@code livros.admission.max-in-flight} across all of them. Off unless
+ * {@code livros.admission.enabled=true}, so a load test from one host is
+ * not capped at one client's limits. The filter runs
+ * right after the HTTP metrics filter, so shed requests still show up in
+ * {@code http.server.requests}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "livros.admission.enabled", havingValue = "true")
+public class AdmissionControlConfiguration {
+
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+	@Bean
+	public AdmissionControlFilter admissionControlFilter(
+			@Value("${livros.admission.maximum-clients:100000}") long maximumClients,
+			@Value("${livros.admission.max-in-flight:80}") int maxInFlight,
+			@Value("${livros.admission.loans.rate:10}") double loansRate,
+			@Value("${livros.admission.loans.burst:20}") int loansBurst,
+			@Value("${livros.admission.loans.max-concurrent:20}") int loansMaxConcurrent,
+			@Value("${livros.admission.search.rate:50}") double searchRate,
+			@Value("${livros.admission.search.burst:100}") int searchBurst,
+			@Value("${livros.admission.search.max-concurrent:50}") int searchMaxConcurrent,
+			@Value("${livros.admission.writes.rate:20}") double writesRate,
+			@Value("${livros.admission.writes.burst:40}") int writesBurst,
+			@Value("${livros.admission.writes.max-concurrent:20}") int writesMaxConcurrent) {
+		return new AdmissionControlFilter(List.of(
+				new Group("loans", request -> AdmissionControlFilter.path(request).startsWith("/api/loans"), 
+						loansRate, loansBurst, loansMaxConcurrent, maximumClients),
+				new Group("search", request -> SAFE_METHODS.contains(request.getMethod()), 
+						searchRate, searchBurst, searchMaxConcurrent, maximumClients),
+				new Group("writes", request -> true, 
+						writesRate, writesBurst, writesMaxConcurrent, maximumClients)), 
+				maxInFlight);
+	}
+}
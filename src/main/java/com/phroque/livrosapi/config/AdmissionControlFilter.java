@@ -0,0 +1,189 @@
+package com.phroque.livrosapi.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Admission control in front of the controllers. Each request falls in the
+ * first endpoint group that matches it. The group takes a token from the
+ * client's bucket, or answers 429, and then a slot of its concurrency
+ * limit, or answers 503. Both answers carry Retry-After and are sent before
+ * any database work. Separate limits per group keep a client looping on the
+ * search from taking the threads the loans need. On top of them a global
+ * limit on the requests in flight across groups sheds load, with 503, once
+ * the groups together would take more than the server can serve at once.
+ * <p>
+ * The slot is held until the filter chain returns, so the streaming part
+ * of an async export is not counted.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter implements OrderedFilter, MeterBinder {
+
+	static final String RATE_LIMITED = "{\"errors\":[\"Too many requests, retry later\"]}";
+	static final String OVERLOADED = "{\"errors\":[\"Server overloaded, retry later\"]}";
+
+	private final List<Group> groups;
+	private final int maxInFlight;
+	private final Semaphore inFlight;
+	private final LongSupplier ticker;
+
+	public AdmissionControlFilter(List<Group> groups, int maxInFlight) {
+		this(groups, maxInFlight, System::nanoTime);
+	}
+
+	AdmissionControlFilter(List<Group> groups, int maxInFlight, LongSupplier ticker) {
+		this.groups = groups;
+		this.maxInFlight = maxInFlight;
+		this.inFlight = new Semaphore(maxInFlight);
+		this.ticker = ticker;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE + 10;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !path(request).startsWith("/api/");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		Group group = groups.stream().filter(candidate -> candidate.matcher.test(request)).findFirst().orElse(null);
+		if(group == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+		long now = ticker.getAsLong();
+		long wait = group.buckets.get(ReadYourWritesFilter.client(request), client -> new TokenBucket(group.rate, group.burst, now))
+				.tryAcquire(now);
+		if(wait > 0) {
+			group.rateLimited.increment();
+			reject(response, HttpStatus.TOO_MANY_REQUESTS, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999), RATE_LIMITED);
+			return;
+		}
+		if(!group.inFlight.tryAcquire()) {
+			group.overloaded.increment();
+			reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, OVERLOADED);
+			return;
+		}
+		if(!inFlight.tryAcquire()) {
+			group.inFlight.release();
+			group.overloaded.increment();
+			reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, OVERLOADED);
+			return;
+		}
+		group.admitted.increment();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			inFlight.release();
+			group.inFlight.release();
+		}
+	}
+
+	static String path(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+
+	private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String body) throws IOException {
+		response.setStatus(status.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("livros.admission.in.flight.total", this, AdmissionControlFilter::getInFlight)
+				.register(registry);
+		for(Group group : groups) {
+			FunctionCounter.builder("livros.admission.requests", group.admitted, LongAdder::sum)
+					.tag("group", group.name)
+					.tag("outcome", "admitted")
+					.register(registry);
+			FunctionCounter.builder("livros.admission.requests", group.rateLimited, LongAdder::sum)
+					.tag("group", group.name)
+					.tag("outcome", "rate-limited")
+					.register(registry);
+			FunctionCounter.builder("livros.admission.requests", group.overloaded, LongAdder::sum)
+					.tag("group", group.name)
+					.tag("outcome", "overloaded")
+					.register(registry);
+			Gauge.builder("livros.admission.in.flight", group, Group::getInFlight)
+					.tag("group", group.name)
+					.register(registry);
+		}
+	}
+
+	public int getInFlight() {
+		return maxInFlight - inFlight.availablePermits();
+	}
+
+	/**
+	 * An endpoint group: the requests it matches, the rate and burst of each
+	 * client's bucket, and the number of its requests served at once.
+	 */
+	public static final class Group {
+
+		private final String name;
+		private final Predicate<HttpServletRequest> matcher;
+		private final double rate;
+		private final int burst;
+		private final int maxConcurrent;
+		private final Semaphore inFlight;
+		private final Cache<String, TokenBucket> buckets;
+		private final LongAdder admitted = new LongAdder();
+		private final LongAdder rateLimited = new LongAdder();
+		private final LongAdder overloaded = new LongAdder();
+
+		public Group(String name, Predicate<HttpServletRequest> matcher, double rate, int burst, int maxConcurrent, long maximumClients) {
+			this.name = name;
+			this.matcher = matcher;
+			this.rate = rate;
+			this.burst = burst;
+			this.maxConcurrent = maxConcurrent;
+			this.inFlight = new Semaphore(maxConcurrent);
+			// an idle client's bucket is full again after burst / rate seconds, so it can be dropped then
+			this.buckets = Caffeine.newBuilder()
+					.maximumSize(maximumClients)
+					.expireAfterAccess((long) Math.ceil(burst / rate) + 1, TimeUnit.SECONDS)
+					.build();
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getInFlight() {
+			return maxConcurrent - inFlight.availablePermits();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.phroque.livrosapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Times the methods of the classes annotated with {@code @Timed}. HTTP
+ * endpoints and repository calls are timed by Spring Boot itself
+ * ({@code http.server.requests} and {@code spring.data.repository.invocations}).
+ */
+@Configuration
+public class MetricsConfiguration {
+
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry registry) {
+		return new TimedAspect(registry);
+	}
+}
@@ -0,0 +1,111 @@
+package com.phroque.livrosapi.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.phroque.livrosapi.config.ReadWriteRoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in mode ({@code livros.datasource.routing.enabled=true}) with two
+ * pools: the primary, configured by {@code spring.datasource.*}, and a
+ * replica, configured by {@code livros.datasource.replica.hikari.*}.
+ * Read-only transactions (searches and lookups of books, loan history) run
+ * on the replica, everything else on the primary, and a client stays on the
+ * primary for {@code livros.datasource.read-your-writes.window} after it
+ * writes.
+ * <p>
+ * With {@code livros.datasource.replica.link-primary=true} the replica is a
+ * local stand-in for replication: once Hibernate has created the schema on
+ * the primary, every table of the primary is linked read-only into the
+ * replica database. Only meant for H2, in development and tests.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "livros.datasource.routing.enabled", havingValue = "true")
+public class ReadWriteRoutingConfiguration {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	@ConfigurationProperties("livros.datasource.replica.hikari")
+	public HikariDataSource replicaDataSource() {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName("replica");
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+		routing.setTargetDataSources(Map.of(Route.PRIMARY, primaryDataSource, Route.REPLICA, replicaDataSource));
+		routing.setDefaultTargetDataSource(primaryDataSource);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+
+	@Bean
+	public ReadYourWritesFilter readYourWritesFilter(
+			@Value("${livros.datasource.read-your-writes.window:5s}") Duration window,
+			@Value("${livros.datasource.read-your-writes.maximum-clients:100000}") long maximumClients) {
+		return new ReadYourWritesFilter(window, maximumClients);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "livros.datasource.replica.link-primary", havingValue = "true")
+	public InitializingBean replicaLink(EntityManagerFactory entityManagerFactory, 
+			HikariDataSource primaryDataSource, HikariDataSource replicaDataSource) {
+		return () -> linkTables(primaryDataSource, replicaDataSource);
+	}
+
+	static void linkTables(HikariDataSource primary, HikariDataSource replica) throws SQLException {
+		List<String> tables = new ArrayList<>();
+		try(Connection connection = primary.getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet result = statement.executeQuery("select table_name from information_schema.tables "
+						+ "where table_schema = 'PUBLIC' and table_type = 'BASE TABLE'")) {
+			while(result.next()) {
+				tables.add(result.getString(1));
+			}
+		}
+		try(Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+			for(String table : tables) {
+				statement.execute(String.format("create linked table if not exists \"%s\"('', '%s', '%s', '%s', 'PUBLIC', '%s') readonly", 
+						table, primary.getJdbcUrl(), primary.getUsername(), nullToEmpty(primary.getPassword()), table));
+			}
+		}
+		log.info("Linked {} tables of the primary into the replica.", tables.size());
+	}
+
+	private static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+}
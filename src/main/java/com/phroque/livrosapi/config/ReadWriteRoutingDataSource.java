@@ -0,0 +1,57 @@
+package com.phroque.livrosapi.config;
+
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends the connections of read-only transactions to the replica and every
+ * other connection to the primary. A thread can be pinned to the primary,
+ * for the requests of a client that has just written. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * so the connection is taken after the transaction is marked read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	public enum Route { PRIMARY, REPLICA }
+
+	private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+	public static void pinToPrimary() {
+		PINNED.set(Boolean.TRUE);
+	}
+
+	public static void unpin() {
+		PINNED.remove();
+	}
+
+	public static boolean isPinnedToPrimary() {
+		return PINNED.get() != null;
+	}
+
+	/**
+	 * Runs the work pinned to the primary, for reads whose result outlives
+	 * the request, like cache loads, and must not be a lagging replica row.
+	 * Only routes transactions that start inside the work.
+	 */
+	public static <T> T onPrimary(Supplier<T> work) {
+		if(isPinnedToPrimary()) {
+			return work.get();
+		}
+		pinToPrimary();
+		try {
+			return work.get();
+		} finally {
+			unpin();
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if(TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PINNED.get() == null) {
+			return Route.REPLICA;
+		}
+		return Route.PRIMARY;
+	}
+}
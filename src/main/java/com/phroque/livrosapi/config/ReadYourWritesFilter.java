@@ -0,0 +1,66 @@
+package com.phroque.livrosapi.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps a client on the primary for a window after it writes, so it reads
+ * its own writes while the replica catches up. Requests with an unsafe
+ * method run on the primary throughout, reads included, and (re)start the
+ * window of their client. A client is its authenticated user or, without
+ * one, its address.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+	private final Cache<String, Boolean> recentWriters;
+
+	public ReadYourWritesFilter(Duration window, long maximumClients) {
+		this.recentWriters = Caffeine.newBuilder()
+				.maximumSize(maximumClients)
+				.expireAfterWrite(window)
+				.build();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String client = client(request);
+		boolean write = !SAFE_METHODS.contains(request.getMethod());
+		if(write) {
+			// before the response is sent, so the client's next request finds it
+			recentWriters.put(client, Boolean.TRUE);
+		}
+		if(write || isPinned(client)) {
+			ReadWriteRoutingDataSource.pinToPrimary();
+		}
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ReadWriteRoutingDataSource.unpin();
+			if(write) {
+				recentWriters.put(client, Boolean.TRUE);
+			}
+		}
+	}
+
+	boolean isPinned(String client) {
+		return recentWriters.getIfPresent(client) != null;
+	}
+
+	static String client(HttpServletRequest request) {
+		return request.getRemoteUser() != null ? request.getRemoteUser() : request.getRemoteAddr();
+	}
+}
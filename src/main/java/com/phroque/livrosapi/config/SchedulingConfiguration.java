@@ -0,0 +1,16 @@
+package com.phroque.livrosapi.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the background jobs, such as the overdue loan scan. Disable with
+ * {@code livros.scheduling.enabled=false} on instances that should not.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "livros.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfiguration {
+
+}
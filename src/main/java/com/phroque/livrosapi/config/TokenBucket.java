@@ -0,0 +1,35 @@
+package com.phroque.livrosapi.config;
+
+/**
+ * Token bucket of one client: holds up to {@code burst} tokens and refills
+ * at {@code rate} tokens per second. Refilled lazily when a token is asked
+ * for, so idle clients cost no work.
+ */
+final class TokenBucket {
+
+	private final double tokensPerNano;
+	private final double capacity;
+	private double tokens;
+	private long refilledAt;
+
+	TokenBucket(double rate, int burst, long now) {
+		this.tokensPerNano = rate / 1e9;
+		this.capacity = burst;
+		this.tokens = burst;
+		this.refilledAt = now;
+	}
+
+	/**
+	 * Takes a token, returning 0, or returns the nanoseconds until one is
+	 * available.
+	 */
+	synchronized long tryAcquire(long now) {
+		tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+		refilledAt = now;
+		if(tokens >= 1) {
+			tokens -= 1;
+			return 0;
+		}
+		return (long) Math.ceil((1 - tokens) / tokensPerNano);
+	}
+}
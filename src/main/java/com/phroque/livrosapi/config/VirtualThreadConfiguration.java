@@ -0,0 +1,64 @@
+package com.phroque.livrosapi.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in mode ({@code livros.virtual-threads.enabled=true}) that runs every
+ * request, and the async exports, on its own virtual thread instead of the
+ * Tomcat worker pool. Blocking JDBC calls then park the virtual thread only,
+ * and the connection pool becomes the limit on concurrent database work.
+ * <p>
+ * Needs Java 21 or later at runtime; the executor is looked up reflectively
+ * so the project still builds for older targets, and startup fails when the
+ * mode is enabled on a JDK without virtual threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "livros.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration implements WebMvcConfigurer {
+
+	private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+		return protocolHandler -> {
+			protocolHandler.setExecutor(executor);
+			log.info("Serving requests on virtual threads.");
+		};
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Virtual threads need Java 21 or later, running on " + Runtime.version() + ".");
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not create the virtual thread executor.", e);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.phroque.livrosapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuthorStatsDTO {
+
+	private String author;
+	private long books;
+	
+}
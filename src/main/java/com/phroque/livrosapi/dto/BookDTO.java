@@ -1,6 +1,9 @@
 package com.phroque.livrosapi.dto;
 
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Pattern;
+import javax.validation.groups.Default;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -14,11 +17,28 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BookDTO {
+	
+	/**
+	 * Checks of a PUT, which replaces the title and author and keeps the isbn.
+	 */
+	public interface Replace {
+	}
+	
+	/**
+	 * Checks of a PATCH, where a field left out keeps its value.
+	 */
+	public interface Patch {
+	}
+	
+	private static final String NOT_BLANK = "(?s).*\\S.*";
+	
 	private Long id;
 	
-	@NotEmpty
+	@NotBlank(groups = { Default.class, Replace.class })
+	@Pattern(regexp = NOT_BLANK, groups = Patch.class, message = "{javax.validation.constraints.NotBlank.message}")
 	private String title;
-	@NotEmpty
+	@NotBlank(groups = { Default.class, Replace.class })
+	@Pattern(regexp = NOT_BLANK, groups = Patch.class, message = "{javax.validation.constraints.NotBlank.message}")
 	private String author;
 	@NotEmpty
 	private String isbn;
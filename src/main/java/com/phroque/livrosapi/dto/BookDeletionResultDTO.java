@@ -0,0 +1,25 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookDeletionResultDTO {
+
+	private long deleted;
+	
+	@Builder.Default
+	private List<Long> notFound = new ArrayList<>();
+	
+	@Builder.Default
+	private List<Long> inUse = new ArrayList<>();
+	
+}
@@ -0,0 +1,29 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportResultDTO {
+
+	/**
+	 * Rows past this many are only counted in {@code rejected}.
+	 */
+	public static final int MAX_REJECTED_ROWS = 1000;
+
+	private long total;
+	private long imported;
+	private long rejected;
+	
+	@Builder.Default
+	private List<BookImportRowDTO> rejectedRows = new ArrayList<>();
+	
+}
@@ -0,0 +1,20 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookImportRowDTO {
+
+	private long line;
+	private String isbn;
+	private List<String> errors;
+	
+}
@@ -0,0 +1,30 @@
+package com.phroque.livrosapi.dto;
+
+import com.phroque.livrosapi.model.entity.Book;
+
+public class BookMapper {
+
+	public Book toEntity(BookDTO dto) {
+		if(dto == null) {
+			return null;
+		}
+		return Book.builder()
+				.id(dto.getId())
+				.title(dto.getTitle())
+				.author(dto.getAuthor())
+				.isbn(dto.getIsbn())
+				.build();
+	}
+
+	public BookDTO toDto(Book book) {
+		if(book == null) {
+			return null;
+		}
+		return BookDTO.builder()
+				.id(book.getId())
+				.title(book.getTitle())
+				.author(book.getAuthor())
+				.isbn(book.getIsbn())
+				.build();
+	}
+}
@@ -0,0 +1,55 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.phroque.livrosapi.model.entity.Book;
+
+/**
+ * A page of the book search with a minimal envelope: content, page, size
+ * and total. {@link BookPageSerializer} writes the books from the entities,
+ * with the fields of {@link BookDTO}, so no list of DTOs is built and
+ * Spring's paging objects stay off the wire.
+ * <p>
+ * It wraps the page the query returned, which is still fully loaded: the
+ * search's ETag is hashed over it before the body is written, and
+ * identical concurrent searches share it. What this changes is the
+ * response shape and the DTO copies, not the loading of the page.
+ */
+@JsonSerialize(using = BookPageSerializer.class)
+public final class BookPage {
+
+	private final List<Book> content;
+	private final int page;
+	private final int size;
+	private final long total;
+
+	private BookPage(List<Book> content, int page, int size, long total) {
+		this.content = content;
+		this.page = page;
+		this.size = size;
+		this.total = total;
+	}
+
+	public static BookPage of(Page<Book> page) {
+		return new BookPage(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements());
+	}
+
+	public List<Book> getContent() {
+		return content;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+}
@@ -0,0 +1,45 @@
+package com.phroque.livrosapi.dto;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.phroque.livrosapi.model.entity.Book;
+
+/**
+ * Streams a {@link BookPage} to the generator. Each book is written with
+ * the same fields, in the same order, as {@link BookDTO} so the content
+ * reads back as BookDTOs.
+ */
+public class BookPageSerializer extends StdSerializer<BookPage> {
+
+	private static final long serialVersionUID = 1L;
+
+	public BookPageSerializer() {
+		super(BookPage.class);
+	}
+
+	@Override
+	public void serialize(BookPage page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeStartObject();
+		generator.writeArrayFieldStart("content");
+		for(Book book : page.getContent()) {
+			generator.writeStartObject();
+			if(book.getId() == null) {
+				generator.writeNullField("id");
+			} else {
+				generator.writeNumberField("id", book.getId());
+			}
+			generator.writeStringField("title", book.getTitle());
+			generator.writeStringField("author", book.getAuthor());
+			generator.writeStringField("isbn", book.getIsbn());
+			generator.writeEndObject();
+		}
+		generator.writeEndArray();
+		generator.writeNumberField("page", page.getPage());
+		generator.writeNumberField("size", page.getSize());
+		generator.writeNumberField("total", page.getTotal());
+		generator.writeEndObject();
+	}
+}
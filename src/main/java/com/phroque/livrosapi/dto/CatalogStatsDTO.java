@@ -0,0 +1,19 @@
+package com.phroque.livrosapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogStatsDTO {
+
+	private long books;
+	private long authors;
+	private long loans;
+	private long activeLoans;
+	
+}
@@ -0,0 +1,20 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+
+	private List<T> content;
+	private int size;
+	private String next;
+	
+}
@@ -0,0 +1,22 @@
+package com.phroque.livrosapi.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CustomerLoanDTO {
+
+	private Long id;
+	private String isbn;
+	private String title;
+	private LocalDate loanDate;
+	private Boolean returned;
+	
+}
@@ -0,0 +1,26 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.List;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBatchDTO {
+
+	public static final int MAX_LOANS = 100;
+
+	@NotEmpty
+	@Size(max = MAX_LOANS)
+	private List<@Valid LoanDTO> loans;
+	
+}
@@ -0,0 +1,18 @@
+package com.phroque.livrosapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBatchItemDTO {
+
+	private String isbn;
+	private Long loanId;
+	private String error;
+	
+}
@@ -0,0 +1,23 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanBatchResultDTO {
+
+	private long created;
+	private long rejected;
+	
+	@Builder.Default
+	private List<LoanBatchItemDTO> items = new ArrayList<>();
+	
+}
@@ -1,5 +1,10 @@
 package com.phroque.livrosapi.dto;
 
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+import com.phroque.livrosapi.model.entity.Loan;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,7 +17,10 @@ import lombok.NoArgsConstructor;
 @Builder
 public class LoanDTO {
 
+	@NotBlank
 	private String isbn;
+	@NotBlank
+	@Size(max = Loan.CUSTOMER_LENGTH)
 	private  String customer;
 	
 }
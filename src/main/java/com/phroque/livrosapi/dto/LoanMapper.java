@@ -0,0 +1,27 @@
+package com.phroque.livrosapi.dto;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+
+public class LoanMapper {
+
+	public Loan toEntity(LoanDTO dto, Book book) {
+		if(dto == null) {
+			return null;
+		}
+		return Loan.builder()
+				.book(book)
+				.customer(dto.getCustomer())
+				.build();
+	}
+
+	public LoanDTO toDto(Loan loan) {
+		if(loan == null) {
+			return null;
+		}
+		return LoanDTO.builder()
+				.isbn(loan.getBook() == null ? null : loan.getBook().getIsbn())
+				.customer(loan.getCustomer())
+				.build();
+	}
+}
@@ -0,0 +1,25 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanReturnDTO {
+
+	public static final int MAX_IDS = 10000;
+
+	@NotEmpty
+	@Size(max = MAX_IDS)
+	private List<Long> ids;
+	
+}
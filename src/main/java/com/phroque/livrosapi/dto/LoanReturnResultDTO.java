@@ -0,0 +1,26 @@
+package com.phroque.livrosapi.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoanReturnResultDTO {
+
+	@Builder.Default
+	private List<Long> returned = new ArrayList<>();
+	
+	@Builder.Default
+	private List<Long> alreadyReturned = new ArrayList<>();
+	
+	@Builder.Default
+	private List<Long> notFound = new ArrayList<>();
+	
+}
@@ -0,0 +1,18 @@
+package com.phroque.livrosapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsRebuildResultDTO {
+
+	private long correctedAuthors;
+	private long correctedBooks;
+	private boolean correctedTotals;
+	
+}
@@ -0,0 +1,47 @@
+package com.phroque.livrosapi.exception;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+public final class Constraints {
+
+	private static final String UNIQUE_VIOLATION = "23505";
+
+	private Constraints() {
+	}
+
+	/**
+	 * Whether the violation was raised by the named constraint. Databases
+	 * decorate the name (schema, index suffix, case), so it is matched as a
+	 * case-insensitive fragment.
+	 */
+	public static boolean isViolated(DataIntegrityViolationException ex, String constraint) {
+		Throwable cause = ex.getCause();
+		if(cause instanceof ConstraintViolationException) {
+			String name = ((ConstraintViolationException) cause).getConstraintName();
+			return contains(name, constraint);
+		}
+		// R2DBC drivers only name the constraint in the message
+		return contains(cause == null ? ex.getMessage() : cause.getMessage(), constraint);
+	}
+
+	/**
+	 * Whether the violation is a duplicate value of a primary key or unique
+	 * constraint, for keys whose constraint the database names itself.
+	 */
+	public static boolean isDuplicateKey(DataIntegrityViolationException ex) {
+		for(Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+			if(cause instanceof SQLException && UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean contains(String text, String constraint) {
+		return text != null && text.toLowerCase(Locale.ROOT).contains(constraint.toLowerCase(Locale.ROOT));
+	}
+}
@@ -5,6 +5,13 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.DynamicUpdate;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,12 +19,21 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@DynamicUpdate
+@Table(
+	uniqueConstraints = @UniqueConstraint(name = "uk_book_isbn", columnNames = "isbn"),
+	indexes = {
+		@Index(name = "idx_book_title_id", columnList = "title, id"),
+		@Index(name = "idx_book_author_id", columnList = "author, id")
+	}
+)
 public class Book {
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+	@SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
 	@Id
 	@Column
 	private Long id;
@@ -27,4 +43,6 @@ public class Book {
 	private String author;
 	@Column
 	private String isbn;
+	@Version
+	private Long version;
 }
@@ -0,0 +1,32 @@
+package com.phroque.livrosapi.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Loan counters of a customer, incremented in the same transaction that
+ * creates or returns the loans, so they never need a count over the loans.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class CustomerLoanStats {
+
+	@Id
+	@Column(length = Loan.CUSTOMER_LENGTH)
+	private String customer;
+	
+	@Column(nullable = false)
+	private long totalLoans;
+	
+	@Column(nullable = false)
+	private long outstandingLoans;
+}
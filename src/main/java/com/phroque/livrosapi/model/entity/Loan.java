@@ -2,6 +2,19 @@ package com.phroque.livrosapi.model.entity;
 
 import java.time.LocalDate;
 
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.ForeignKey;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,15 +24,42 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@Entity
+@Table(
+	uniqueConstraints = @UniqueConstraint(name = "uk_loan_active_book", columnNames = "active_book_id"),
+	indexes = {
+		@Index(name = "idx_loan_book", columnList = "book_id"),
+		@Index(name = "idx_loan_customer_date", columnList = "customer, loanDate, id, returned"),
+		@Index(name = "idx_loan_returned_date", columnList = "returned, loanDate, id")
+	}
+)
 public class Loan {
 
+	public static final int CUSTOMER_LENGTH = 100;
+
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_seq")
+	@SequenceGenerator(name = "loan_seq", sequenceName = "loan_seq", allocationSize = 50)
+	@Id
+	@Column
 	private Long id;
 	
+	@Column(length = CUSTOMER_LENGTH)
 	private String customer;
 	
+	@ManyToOne
+	@JoinColumn(name = "book_id", foreignKey = @ForeignKey(name = "fk_loan_book"))
 	private Book book;
 	
+	@Column
 	private LocalDate loanDate;
 	
+	@Column
 	private Boolean returned;
+	
+	/**
+	 * The book id while the loan is open and null once it is returned. The
+	 * unique constraint on it allows a single open loan per book.
+	 */
+	@Column(name = "active_book_id")
+	private Long activeBookId;
 }
@@ -0,0 +1,53 @@
+package com.phroque.livrosapi.model.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Late record of a loan found overdue by the overdue loan scan, one per loan.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_overdue_loan_loan", columnNames = "loan_id"))
+public class OverdueLoan {
+
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "overdue_loan_seq")
+	@SequenceGenerator(name = "overdue_loan_seq", sequenceName = "overdue_loan_seq", allocationSize = 50)
+	@Id
+	@Column
+	private Long id;
+	
+	@Column(name = "loan_id")
+	private Long loanId;
+	
+	@Column(name = "book_id")
+	private Long bookId;
+	
+	@Column(length = Loan.CUSTOMER_LENGTH)
+	private String customer;
+	
+	@Column
+	private LocalDate loanDate;
+	
+	@Column
+	private LocalDate dueDate;
+	
+	@Column
+	private LocalDate detectedAt;
+}
@@ -0,0 +1,39 @@
+package com.phroque.livrosapi.model.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Version;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Position reached by a background scan over loans, ordered by loan date
+ * and id. It is written in the same transaction as the chunk it covers, so
+ * a restarted scan resumes right after the last committed chunk.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+public class ScanCheckpoint {
+
+	@Id
+	@Column(length = 50)
+	private String name;
+	
+	@Column
+	private LocalDate lastLoanDate;
+	
+	@Column
+	private Long lastLoanId;
+	
+	@Version
+	private Long version;
+}
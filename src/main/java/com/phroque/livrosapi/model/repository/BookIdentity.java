@@ -0,0 +1,11 @@
+package com.phroque.livrosapi.model.repository;
+
+/**
+ * Id and isbn of a book, read without loading the book.
+ */
+public interface BookIdentity {
+
+	Long getId();
+
+	String getIsbn();
+}
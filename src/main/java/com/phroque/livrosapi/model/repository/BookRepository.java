@@ -1,18 +1,41 @@
 package com.phroque.livrosapi.model.repository;
 
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 import com.phroque.livrosapi.model.entity.Book;
 
 
-public interface BookRepository extends JpaRepository<Book, Long>{
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
 	boolean existsByIsbn(String isbn);
 
 	Optional<Book> findByIsbn(String isbn);
 	
+	@Query("select b.version from Book b where b.id = :id")
+	Optional<Long> findVersionById(Long id);
+	
+	@Query("select b.author, count(b) from Book b group by b.author")
+	Stream<Object[]> countByAuthor();
+	
+	@Query("select b.isbn from Book b where b.isbn in :isbns")
+	List<String> findExistingIsbns(Collection<String> isbns);
+	
+	@Query("select b.id as id, b.isbn as isbn from Book b where b.isbn in :isbns")
+	List<BookIdentity> findIdentities(Collection<String> isbns);
+	
+	@Query("select b.isbn from Book b")
+	Stream<String> streamAllIsbns();
+	
+	@Query("select b.id, b.title, b.author from Book b")
+	Stream<Object[]> streamTextFields();
+	
 		
 }
@@ -0,0 +1,50 @@
+package com.phroque.livrosapi.model.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.phroque.livrosapi.model.entity.Book;
+
+public interface BookRepositoryCustom {
+
+	List<Book> findTop(Specification<Book> spec, Sort sort, int limit);
+
+	Stream<Book> stream(Specification<Book> spec, Sort sort, int fetchSize);
+
+	void detach(Book book);
+
+	/**
+	 * Sets the non-null title and author of the book in a single UPDATE that
+	 * also bumps its version, checking the expected version when one is
+	 * passed. Returns the id, isbn, title, author and version the row had
+	 * before the update, read under a row lock in the same transaction, or empty when no
+	 * row was updated.
+	 */
+	Optional<Book> patch(Long id, Long expectedVersion, String title, String author);
+
+	/**
+	 * Deletes the book in a single DELETE, checking the expected version when
+	 * one is passed. Returns the id, isbn, title, author and version of the
+	 * deleted row, read under a row lock in the same transaction, or empty when no
+	 * row was deleted.
+	 */
+	Optional<Book> remove(Long id, Long expectedVersion);
+
+	/**
+	 * Deletes the books of the ids that still match the specification in a
+	 * single DELETE. Returns the number of rows deleted.
+	 */
+	int removeAll(Specification<Book> spec, Collection<Long> ids);
+
+	/**
+	 * Id, isbn, title and author of the books matching the specification
+	 * after the given id, in id order, as detached books without version.
+	 */
+	List<Book> findSummaries(Specification<Book> spec, Long afterId, int limit);
+
+}
@@ -0,0 +1,201 @@
+package com.phroque.livrosapi.model.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.NullHandling;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phroque.livrosapi.model.entity.Book;
+
+public class BookRepositoryImpl implements BookRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<Book> findTop(Specification<Book> spec, Sort sort, int limit) {
+		return entityManager.createQuery(query(spec, sort))
+				.setMaxResults(limit)
+				.getResultList();
+	}
+
+	@Override
+	public Stream<Book> stream(Specification<Book> spec, Sort sort, int fetchSize) {
+		return entityManager.createQuery(query(spec, sort))
+				.setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+				.setHint(QueryHints.HINT_READONLY, true)
+				.getResultStream();
+	}
+
+	@Override
+	public void detach(Book book) {
+		entityManager.detach(book);
+	}
+
+	@Override
+	@Transactional
+	public Optional<Book> patch(Long id, Long expectedVersion, String title, String author) {
+		Optional<Book> before = lock(id, expectedVersion);
+		if(before.isEmpty()) {
+			return before;
+		}
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Book> update = builder.createCriteriaUpdate(Book.class);
+		Root<Book> root = update.from(Book.class);
+		Path<Long> version = root.get("version");
+		update.set(version, builder.sum(version, 1l));
+		if(title != null) {
+			update.set(root.<String>get("title"), title);
+		}
+		if(author != null) {
+			update.set(root.<String>get("author"), author);
+		}
+		int updated = bind(entityManager.createQuery(update.where(byId(builder, root, expectedVersion))), id, expectedVersion).executeUpdate();
+		return updated == 1 ? before : Optional.empty();
+	}
+
+	@Override
+	@Transactional
+	public Optional<Book> remove(Long id, Long expectedVersion) {
+		Optional<Book> before = lock(id, expectedVersion);
+		if(before.isEmpty()) {
+			return before;
+		}
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaDelete<Book> delete = builder.createCriteriaDelete(Book.class);
+		Root<Book> root = delete.from(Book.class);
+		int deleted = bind(entityManager.createQuery(delete.where(byId(builder, root, expectedVersion))), id, expectedVersion).executeUpdate();
+		return deleted == 1 ? before : Optional.empty();
+	}
+
+	@Override
+	@Transactional
+	public int removeAll(Specification<Book> spec, Collection<Long> ids) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaDelete<Book> delete = builder.createCriteriaDelete(Book.class);
+		Root<Book> root = delete.from(Book.class);
+		Predicate predicate = root.get("id").in(ids);
+		Predicate matching = spec == null ? null : spec.toPredicate(root, null, builder);
+		if(matching != null) {
+			predicate = builder.and(predicate, matching);
+		}
+		return entityManager.createQuery(delete.where(predicate)).executeUpdate();
+	}
+
+	@Override
+	public List<Book> findSummaries(Specification<Book> spec, Long afterId, int limit) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = builder.createTupleQuery();
+		Root<Book> root = query.from(Book.class);
+		List<Predicate> predicates = new ArrayList<>();
+		Predicate predicate = spec == null ? null : spec.toPredicate(root, query, builder);
+		if(predicate != null) {
+			predicates.add(predicate);
+		}
+		if(afterId != null) {
+			predicates.add(builder.greaterThan(root.get("id"), afterId));
+		}
+		query.multiselect(root.get("id"), root.get("isbn"), root.get("title"), root.get("author"))
+			.where(predicates.toArray(new Predicate[0]))
+			.orderBy(builder.asc(root.get("id")));
+		return entityManager.createQuery(query)
+				.setMaxResults(limit)
+				.getResultStream()
+				.map(BookRepositoryImpl::summary)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Reads the id, isbn, title, author and version of the book with SELECT
+	 * ... FOR UPDATE, so they are still the row's values when the write that follows
+	 * in the same transaction runs.
+	 */
+	private Optional<Book> lock(Long id, Long expectedVersion) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = builder.createTupleQuery();
+		Root<Book> root = query.from(Book.class);
+		query.multiselect(root.get("id"), root.get("isbn"), root.get("title"), root.get("author"), root.get("version"))
+			.where(byId(builder, root, expectedVersion));
+		return bind(entityManager.createQuery(query), id, expectedVersion)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getResultStream()
+				.findFirst()
+				.map(BookRepositoryImpl::summary);
+	}
+
+	// bound rather than inlined, so every book shares the statement
+	private static Predicate byId(CriteriaBuilder builder, Root<Book> root, Long expectedVersion) {
+		Predicate byId = builder.equal(root.get("id"), builder.parameter(Long.class, "id"));
+		return expectedVersion == null ? byId : builder.and(byId, builder.equal(root.get("version"), builder.parameter(Long.class, "version")));
+	}
+
+	private static <Q extends Query> Q bind(Q query, Long id, Long expectedVersion) {
+		query.setParameter("id", id);
+		if(expectedVersion != null) {
+			query.setParameter("version", expectedVersion);
+		}
+		return query;
+	}
+
+	private static Book summary(Tuple tuple) {
+		return Book.builder()
+				.id(tuple.get(0, Long.class))
+				.isbn(tuple.get(1, String.class))
+				.title(tuple.get(2, String.class))
+				.author(tuple.get(3, String.class))
+				.version(tuple.getElements().size() > 4 ? tuple.get(4, Long.class) : null)
+				.build();
+	}
+
+	private CriteriaQuery<Book> query(Specification<Book> spec, Sort sort) {
+		CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Book> query = builder.createQuery(Book.class);
+		Root<Book> root = query.from(Book.class);
+		Predicate predicate = spec == null ? null : spec.toPredicate(root, query, builder);
+		if(predicate != null) {
+			query.where(predicate);
+		}
+		return query.select(root).orderBy(orders(sort, root, builder));
+	}
+
+	/**
+	 * The orders of the sort, honouring its null handling, which JPA can not
+	 * express: nulls are ranked apart before the value itself.
+	 */
+	private static List<Order> orders(Sort sort, Root<Book> root, CriteriaBuilder builder) {
+		List<Order> orders = new ArrayList<>();
+		for(Sort.Order order : sort) {
+			if(order.getNullHandling() != NullHandling.NATIVE) {
+				int nullRank = order.getNullHandling() == NullHandling.NULLS_FIRST ? 0 : 1;
+				orders.add(builder.asc(builder.<Integer>selectCase()
+						.when(builder.isNull(root.get(order.getProperty())), nullRank)
+						.otherwise(1 - nullRank)));
+			}
+			orders.addAll(QueryUtils.toOrders(Sort.by(order), root, builder));
+		}
+		return orders;
+	}
+}
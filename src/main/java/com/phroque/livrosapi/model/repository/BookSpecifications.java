@@ -0,0 +1,82 @@
+package com.phroque.livrosapi.model.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import com.phroque.livrosapi.model.entity.Book;
+
+public final class BookSpecifications {
+
+	private BookSpecifications() {
+	}
+
+	/**
+	 * Same semantics as the {@code Example} used by the offset search: null
+	 * properties are ignored, strings match case insensitively by containment.
+	 */
+	public static Specification<Book> matching(Book filter) {
+		return (root, query, builder) -> {
+			if(filter == null) {
+				return null;
+			}
+			List<Predicate> predicates = new ArrayList<>();
+			if(filter.getId() != null) {
+				predicates.add(builder.equal(root.get("id"), filter.getId()));
+			}
+			contains(predicates, root, builder, "title", filter.getTitle());
+			contains(predicates, root, builder, "author", filter.getAuthor());
+			contains(predicates, root, builder, "isbn", filter.getIsbn());
+			return predicates.isEmpty() ? null : builder.and(predicates.toArray(new Predicate[0]));
+		};
+	}
+
+	public static Specification<Book> idIn(long[] ids) {
+		return (root, query, builder) -> root.get("id").in(Arrays.stream(ids).boxed().toArray());
+	}
+
+	/**
+	 * Seek predicate for keyset pagination: rows strictly after
+	 * ({@code value}, {@code id}) in the given order of {@code property}.
+	 * A null {@code value} is the last row's null, and nulls sort as the
+	 * lowest values: first when ascending, last when descending.
+	 */
+	public static <T extends Comparable<? super T>> Specification<Book> after(String property, boolean ascending, T value, Long id) {
+		return (root, query, builder) -> {
+			if(id == null) {
+				return null;
+			}
+			Path<Long> idPath = root.get("id");
+			Predicate afterId = ascending ? builder.greaterThan(idPath, id) : builder.lessThan(idPath, id);
+			if("id".equals(property)) {
+				return afterId;
+			}
+			Expression<T> path = root.get(property);
+			if(value == null) {
+				Predicate afterNull = builder.and(builder.isNull(path), afterId);
+				return ascending ? builder.or(afterNull, builder.isNotNull(path)) : afterNull;
+			}
+			Predicate afterValue = ascending ? builder.greaterThan(path, value) : builder.lessThan(path, value);
+			Predicate after = builder.or(afterValue, builder.and(builder.equal(path, value), afterId));
+			return ascending ? after : builder.or(after, builder.isNull(path));
+		};
+	}
+
+	private static void contains(List<Predicate> predicates, Root<Book> root, CriteriaBuilder builder, String property, String value) {
+		if(value == null) {
+			return;
+		}
+		String pattern = "%" + EscapeCharacter.DEFAULT.escape(value.toLowerCase(Locale.ROOT)) + "%";
+		predicates.add(builder.like(builder.lower(root.get(property)), pattern, EscapeCharacter.DEFAULT.getEscapeCharacter()));
+	}
+}
@@ -0,0 +1,19 @@
+package com.phroque.livrosapi.model.repository;
+
+import java.time.LocalDate;
+
+/**
+ * A loan of a customer with the book it is for, read for the history.
+ */
+public interface CustomerLoan {
+
+	Long getId();
+
+	String getIsbn();
+
+	String getTitle();
+
+	LocalDate getLoanDate();
+
+	Boolean getReturned();
+}
@@ -0,0 +1,20 @@
+package com.phroque.livrosapi.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.phroque.livrosapi.model.entity.CustomerLoanStats;
+
+public interface CustomerLoanStatsRepository extends JpaRepository<CustomerLoanStats, String> {
+
+	@Modifying
+	@Query("update CustomerLoanStats s set s.totalLoans = s.totalLoans + :loans, s.outstandingLoans = s.outstandingLoans + :loans "
+			+ "where s.customer = :customer")
+	int addLoans(String customer, long loans);
+
+	@Modifying
+	@Query("update CustomerLoanStats s set s.outstandingLoans = s.outstandingLoans - :returns "
+			+ "where s.customer = :customer and s.outstandingLoans >= :returns")
+	int addReturns(String customer, long returns);
+}
@@ -0,0 +1,59 @@
+package com.phroque.livrosapi.model.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.phroque.livrosapi.model.entity.Loan;
+
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+
+	/**
+	 * Open loans taken before the cutoff, after the (loanDate, id) position,
+	 * in that order. Resolved by a range scan of idx_loan_returned_date.
+	 */
+	@Query("select l.id as id, l.book.id as bookId, l.customer as customer, l.loanDate as loanDate from Loan l "
+			+ "where l.returned = false and l.loanDate < :cutoff "
+			+ "and (l.loanDate > :lastLoanDate or (l.loanDate = :lastLoanDate and l.id > :lastLoanId)) "
+			+ "order by l.loanDate, l.id")
+	List<OverdueLoanCandidate> findOverdue(LocalDate cutoff, LocalDate lastLoanDate, Long lastLoanId, Pageable pageable);
+
+	/**
+	 * Locks the loans, in id order so concurrent batches can not deadlock,
+	 * and reads whether each one is returned.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select l.id as id, l.returned as returned, l.customer as customer from Loan l where l.id in :ids order by l.id")
+	List<LoanReturnState> findReturnStates(Collection<Long> ids);
+	
+	/**
+	 * Loans of the customer, newest first, after the (loanDate, id) position,
+	 * optionally only the open ones. Resolved by a range scan of
+	 * idx_loan_customer_date, which also holds the returned flag.
+	 */
+	@Query("select l.id as id, b.isbn as isbn, b.title as title, l.loanDate as loanDate, l.returned as returned "
+			+ "from Loan l join l.book b "
+			+ "where l.customer = :customer and (:activeOnly = false or l.returned = false) "
+			+ "and (l.loanDate < :lastLoanDate or (l.loanDate = :lastLoanDate and l.id < :lastLoanId)) "
+			+ "order by l.loanDate desc, l.id desc")
+	List<CustomerLoan> findByCustomer(String customer, boolean activeOnly, LocalDate lastLoanDate, Long lastLoanId, Pageable pageable);
+	
+	@Query("select l.book.id, count(l), sum(case when l.returned = false then 1 else 0 end) from Loan l group by l.book.id")
+	Stream<Object[]> countByBook();
+	
+	@Query("select l.activeBookId from Loan l where l.activeBookId in :bookIds")
+	List<Long> findActiveBookIds(Collection<Long> bookIds);
+	
+	@Modifying
+	@Query("update Loan l set l.returned = true, l.activeBookId = null where l.id in :ids and l.returned = false")
+	int markReturned(Collection<Long> ids);
+}
@@ -0,0 +1,13 @@
+package com.phroque.livrosapi.model.repository;
+
+/**
+ * Whether a loan is returned and whose it is, read without loading the loan.
+ */
+public interface LoanReturnState {
+
+	Long getId();
+
+	Boolean getReturned();
+
+	String getCustomer();
+}
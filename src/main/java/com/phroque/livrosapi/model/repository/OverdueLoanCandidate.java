@@ -0,0 +1,18 @@
+package com.phroque.livrosapi.model.repository;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of an open loan the overdue scan needs, read without loading
+ * the loan and its book.
+ */
+public interface OverdueLoanCandidate {
+
+	Long getId();
+
+	Long getBookId();
+
+	String getCustomer();
+
+	LocalDate getLoanDate();
+}
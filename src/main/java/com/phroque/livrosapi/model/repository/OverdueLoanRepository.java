@@ -0,0 +1,9 @@
+package com.phroque.livrosapi.model.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.phroque.livrosapi.model.entity.OverdueLoan;
+
+public interface OverdueLoanRepository extends JpaRepository<OverdueLoan, Long> {
+
+}
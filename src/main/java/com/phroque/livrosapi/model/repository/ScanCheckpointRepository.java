@@ -0,0 +1,22 @@
+package com.phroque.livrosapi.model.repository;
+
+import java.util.Optional;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import com.phroque.livrosapi.model.entity.ScanCheckpoint;
+
+public interface ScanCheckpointRepository extends JpaRepository<ScanCheckpoint, String> {
+
+	/**
+	 * Reads the checkpoint and locks it until the transaction ends, so a
+	 * scan running on another instance waits for the chunk to commit.
+	 */
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select c from ScanCheckpoint c where c.name = :name")
+	Optional<ScanCheckpoint> findForUpdate(String name);
+}
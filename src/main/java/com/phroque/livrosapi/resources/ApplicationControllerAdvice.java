@@ -1,5 +1,7 @@
 package com.phroque.livrosapi.resources;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -12,24 +14,48 @@ import org.springframework.web.server.ResponseStatusException;
 import com.phroque.livrosapi.exception.ApiErrors;
 import com.phroque.livrosapi.exception.BusinessException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+
 @RestControllerAdvice
 public class ApplicationControllerAdvice {
 
+	static final String REJECTIONS = "livros.rejections";
+
+	private final MeterRegistry registry;
+
+	@Autowired
+	public ApplicationControllerAdvice(ObjectProvider<MeterRegistry> registry) {
+		this(registry.getIfAvailable(() -> Metrics.globalRegistry));
+	}
+
+	public ApplicationControllerAdvice(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	@ResponseStatus(HttpStatus.BAD_REQUEST )
 	public ApiErrors handleValidationExceptions(MethodArgumentNotValidException ex) {
 		BindingResult bindingResult = ex.getBindingResult();
+		reject("validation", "Invalid fields.");
 		return new ApiErrors(bindingResult);
 	}
 	
 	@ExceptionHandler(BusinessException.class)
 	@ResponseStatus(HttpStatus.BAD_REQUEST )
 	public ApiErrors handleBusinessExceptions(BusinessException ex) {
+		reject("business", ex.getMessage());
 		return new ApiErrors(ex);
 	}
 	
 	@ExceptionHandler(ResponseStatusException.class)
 	public ResponseEntity<?> handleResponseStatusException(ResponseStatusException ex) {
+		reject("status", ex.getReason() == null ? ex.getStatus().getReasonPhrase() : ex.getReason());
 		return new ResponseEntity(new ApiErrors(ex), ex.getStatus());
 	}
+
+	// reasons are the fixed messages of the exceptions, so the tag stays low cardinality
+	private void reject(String type, String reason) {
+		registry.counter(REJECTIONS, "type", type, "reason", String.valueOf(reason)).increment();
+	}
 }
@@ -2,95 +2,224 @@ package com.phroque.livrosapi.resources;
 
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import javax.validation.Valid;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.dto.BookPage;
+import com.phroque.livrosapi.dto.CursorPageDTO;
 import com.phroque.livrosapi.exception.ApiErrors;
 import com.phroque.livrosapi.exception.BusinessException;
 import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.services.BookCursor;
 import com.phroque.livrosapi.services.BookService;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 	
+	private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+	private static final String PREFER = "Prefer";
+	private static final String RETURN_REPRESENTATION = "return=representation";
+	
 	private BookService service;
-	private ModelMapper modelMapper;
+	private BookMapper mapper;
 	
-	public BookController(BookService service, ModelMapper mapper) {
+	public BookController(BookService service, BookMapper mapper) {
 		this.service = service;
-		this.modelMapper = mapper;
+		this.mapper = mapper;
 	}
 
 
 	@PostMapping
 	@ResponseStatus(HttpStatus.CREATED)
 	public BookDTO create(@RequestBody @Valid BookDTO dto) {	
-		Book entity = modelMapper.map(dto, Book.class);
+		Book entity = mapper.toEntity(dto);
 		entity = service.save(entity);		
-		BookDTO response = modelMapper.map(entity, BookDTO.class);
+		BookDTO response = mapper.toDto(entity);
 		return response;
 	}
 	
 	@GetMapping("{id}")
-	public BookDTO get(@PathVariable Long id) {
+	public ResponseEntity<BookDTO> get(@PathVariable Long id, WebRequest request) {
+		if(request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+			// answer a revalidation from the version alone, without loading the book
+			Optional<String> etag = service.getVersion(id).map(BookController::etag);
+			if(etag.isPresent() && request.checkNotModified(etag.get())) {
+				return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+			}
+		}
 		return service
 				.getById(id)
-				.map(book -> modelMapper.map(book, BookDTO.class))
+				.map(book -> withETag(ResponseEntity.ok(), book).body(mapper.toDto(book)))
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));	
 	}
 	
 	@DeleteMapping("{id}")
 	@ResponseStatus(HttpStatus.NO_CONTENT)
-	public void delete(@PathVariable Long id) {
-		Book book = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-		service.delete(book);
+	public void delete(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		if(!service.deleteById(id, version(ifMatch))) {
+			if(ifMatch != null && service.getVersion(id).isPresent()) {
+				throw concurrentModification(ifMatch);
+			}
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
 	}
 	
+	/**
+	 * Replaces the title and author with a single conditional UPDATE, like
+	 * {@link #patch}, without loading the book first.
+	 */
 	@PutMapping("{id}")
-	public BookDTO update(@PathVariable Long id, BookDTO dto) {
-		return service.getById(id)
-			.map((book) -> {
-				book.setAuthor(dto.getAuthor());
-				book.setTitle(dto.getTitle());
-				book = service.update(book);
-				return modelMapper.map(book, BookDTO.class);
+	public ResponseEntity<BookDTO> update(@PathVariable Long id, @RequestBody @Validated(BookDTO.Replace.class) BookDTO dto, 
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		Book changes = Book.builder().id(id).title(dto.getTitle()).author(dto.getAuthor()).version(version(ifMatch)).build();
+		Book book = service.replace(changes).orElseThrow(() -> {
+			if(ifMatch != null && service.getVersion(id).isPresent()) {
+				return concurrentModification(ifMatch);
+			}
+			return new ResponseStatusException(HttpStatus.NOT_FOUND);
+		});
+		return withETag(ResponseEntity.ok(), book).body(mapper.toDto(book));
+	}
+	
+	/**
+	 * Applies the title and author present in the body with a single UPDATE.
+	 * The book is only read back when the client asks for it with
+	 * {@code Prefer: return=representation}.
+	 */
+	@PatchMapping("{id}")
+	public ResponseEntity<BookDTO> patch(@PathVariable Long id, @RequestBody @Validated(BookDTO.Patch.class) BookDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@RequestHeader(value = PREFER, required = false) String prefer) {
+		Long version = version(ifMatch);
+		Book changes = Book.builder().id(id).title(dto.getTitle()).author(dto.getAuthor()).version(version).build();
+		if(!service.patch(changes)) {
+			if(!service.getVersion(id).isPresent()) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND);
 			}
-			).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));			
+			throw concurrentModification(ifMatch);
+		}
+		if(RETURN_REPRESENTATION.equalsIgnoreCase(prefer == null ? null : prefer.trim())) {
+			return service
+					.getById(id)
+					.map(book -> withETag(ResponseEntity.ok(), book).body(mapper.toDto(book)))
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+		}
+		ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+		if(version != null) {
+			response.eTag(etag(version + 1));
+		}
+		return response.build();
 	}
 	
 	@GetMapping
-	public Page<BookDTO> find (BookDTO dto, Pageable pageRequest) {
-		Book filter = modelMapper.map(dto, Book.class);
+	public ResponseEntity<BookPage> find (BookDTO dto, Pageable pageRequest, WebRequest request) {
+		Book filter = mapper.toEntity(dto);
 		Page<Book> result = service.find(filter, pageRequest);
-		List<BookDTO> list = result.getContent()
-				.stream()
-				.map(entity -> modelMapper.map(entity, BookDTO.class))
-				.collect(Collectors.toList());
-		return new PageImpl<BookDTO>(list,pageRequest,result.getTotalElements());
+		String etag = etag(result);
+		if(request.checkNotModified(etag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+		}
+		return ResponseEntity.ok().eTag(etag).body(BookPage.of(result));
+	}
+	
+	@GetMapping(params = "cursor")
+	public CursorPageDTO<BookDTO> findAfter(BookDTO dto, @RequestParam String cursor, 
+			@RequestParam(defaultValue = "20") int size, Sort sort) {
+		BookCursor bookCursor = cursor.isEmpty() ? BookCursor.first(sort) : BookCursor.decode(cursor);
+		int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+		Slice<Book> result = service.findAfter(mapper.toEntity(dto), bookCursor, pageSize);
+		List<Book> content = result.getContent();
+		String next = result.hasNext() ? bookCursor.next(content.get(content.size() - 1)).encode() : null;
+		return CursorPageDTO.<BookDTO>builder()
+				.content(content.stream().map(mapper::toDto).collect(Collectors.toList()))
+				.size(pageSize)
+				.next(next)
+				.build();
 	}
 	
+	private static String etag(Long version) {
+		return "\"" + version + "\"";
+	}
+	
+	/**
+	 * Strong ETag of a search page, a hash of the ids and versions of its
+	 * books, its position and the total of the search.
+	 */
+	private static String etag(Page<Book> page) {
+		long hash = 0xcbf29ce484222325L;
+		for(Book book : page.getContent()) {
+			hash = (hash ^ Objects.hashCode(book.getId())) * 0x100000001b3L;
+			hash = (hash ^ Objects.hashCode(book.getVersion())) * 0x100000001b3L;
+		}
+		hash = (hash ^ page.getTotalElements()) * 0x100000001b3L;
+		hash = (hash ^ page.getNumber()) * 0x100000001b3L;
+		hash = (hash ^ page.getSize()) * 0x100000001b3L;
+		hash = (hash ^ page.getSort().toString().hashCode()) * 0x100000001b3L;
+		return "\"" + Long.toHexString(hash) + "\"";
+	}
+	
+	private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder builder, Book book) {
+		return book.getVersion() == null ? builder : builder.eTag(etag(book.getVersion()));
+	}
+	
+	/**
+	 * Applies the version of an If-Match header to the book, so the write
+	 * only succeeds if the row still has that version.
+	 */
+	/**
+	 * Version of an If-Match header, {@code null} when absent or {@code *}.
+	 */
+	private static Long version(String ifMatch) {
+		if(ifMatch == null || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String value = ifMatch.trim();
+		if(value.length() < 2 || !value.startsWith("\"") || !value.endsWith("\"")) {
+			throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was modified.");
+		}
+		try {
+			return Long.valueOf(value.substring(1, value.length() - 1));
+		} catch (NumberFormatException e) {
+			throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was modified.");
+		}
+	}
 	
+	private static ResponseStatusException concurrentModification(String ifMatch) {
+		return ifMatch == null 
+				? new ResponseStatusException(HttpStatus.CONFLICT, "Book was modified concurrently.")
+				: new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Book was modified.");
+	}
 
 }
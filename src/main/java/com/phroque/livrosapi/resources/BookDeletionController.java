@@ -0,0 +1,49 @@
+package com.phroque.livrosapi.resources;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.BookDeletionResultDTO;
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.services.BookDeletionService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/books")
+@RequiredArgsConstructor
+public class BookDeletionController {
+	
+	static final int MAX_IDS = 10000;
+
+	private final BookDeletionService service;
+	private final BookMapper mapper;
+	
+	/**
+	 * Deletes the listed books, or every book matching the same filter the
+	 * search accepts. A request without ids nor filter is rejected.
+	 */
+	@DeleteMapping
+	public BookDeletionResultDTO deleteAll(BookDTO dto, @RequestParam(required = false) List<Long> ids) {
+		if(ids != null && !ids.isEmpty()) {
+			if(ids.size() > MAX_IDS) {
+				throw new BusinessException("At most " + MAX_IDS + " ids can be deleted at once.");
+			}
+			return service.deleteAll(ids);
+		}
+		if(isBlank(dto.getTitle()) && isBlank(dto.getAuthor()) && isBlank(dto.getIsbn())) {
+			throw new BusinessException("Ids or a filter are required to delete books.");
+		}
+		return service.deleteAll(mapper.toEntity(dto));
+	}
+	
+	private static boolean isBlank(String value) {
+		return value == null || value.isBlank();
+	}
+}
@@ -0,0 +1,131 @@
+package com.phroque.livrosapi.resources;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.services.BookExportService;
+
+/**
+ * Streams the catalog. The export runs on an async request with a timeout
+ * of its own, {@code livros.export.timeout}, since a full catalog takes far
+ * longer than the other requests are allowed to.
+ * <p>
+ * The Accept header picks ndjson or csv. Without one, or with one that
+ * takes any type, the export is ndjson; a client that only accepts other
+ * types, {@code application/json} included, gets a 406.
+ */
+@RestController
+@RequestMapping("/api/books/export")
+public class BookExportController {
+	
+	static final String NDJSON = "application/x-ndjson";
+	static final String CSV = "text/csv";
+
+	private final BookExportService service;
+	private final BookMapper mapper;
+	private final ObjectMapper objectMapper;
+	private final Duration timeout;
+	
+	public BookExportController(BookExportService service, BookMapper mapper, ObjectMapper objectMapper,
+			@Value("${livros.export.timeout:1h}") Duration timeout) {
+		this.service = service;
+		this.mapper = mapper;
+		this.objectMapper = objectMapper;
+		this.timeout = timeout;
+	}
+	
+	@GetMapping(produces = NDJSON)
+	public WebAsyncTask<Void> exportNdjson(BookDTO dto, HttpServletResponse response) {
+		Book filter = mapper.toEntity(dto);
+		return stream(response, MediaType.parseMediaType(NDJSON), out -> {
+			JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+			generator.setRootValueSeparator(null);
+			service.export(filter, book -> writeJson(generator, book));
+			generator.flush();
+		});
+	}
+	
+	@GetMapping(produces = CSV)
+	public WebAsyncTask<Void> exportCsv(BookDTO dto, HttpServletResponse response) {
+		Book filter = mapper.toEntity(dto);
+		return stream(response, new MediaType("text", "csv", StandardCharsets.UTF_8), out -> {
+			Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			writer.write("id,title,author,isbn\n");
+			service.export(filter, book -> writeCsv(writer, book));
+			writer.flush();
+		});
+	}
+	
+	/**
+	 * Writes the body on the async request the way {@link StreamingResponseBody}
+	 * does, but under the export timeout instead of the global one.
+	 */
+	private WebAsyncTask<Void> stream(HttpServletResponse response, MediaType contentType, StreamingResponseBody body) {
+		response.setContentType(contentType.toString());
+		return new WebAsyncTask<>(timeout.toMillis(), () -> {
+			OutputStream out = response.getOutputStream();
+			body.writeTo(out);
+			out.flush();
+			return null;
+		});
+	}
+	
+	private void writeJson(JsonGenerator generator, Book book) {
+		try {
+			generator.writeStartObject();
+			generator.writeNumberField("id", book.getId());
+			generator.writeStringField("title", book.getTitle());
+			generator.writeStringField("author", book.getAuthor());
+			generator.writeStringField("isbn", book.getIsbn());
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void writeCsv(Writer writer, Book book) {
+		try {
+			writer.write(String.valueOf(book.getId()));
+			writer.write(',');
+			writer.write(csv(book.getTitle()));
+			writer.write(',');
+			writer.write(csv(book.getAuthor()));
+			writer.write(',');
+			writer.write(csv(book.getIsbn()));
+			writer.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private static String csv(String value) {
+		if(value == null) {
+			return "";
+		}
+		if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
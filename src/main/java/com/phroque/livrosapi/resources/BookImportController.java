@@ -0,0 +1,35 @@
+package com.phroque.livrosapi.resources;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.phroque.livrosapi.dto.BookImportResultDTO;
+import com.phroque.livrosapi.services.BookImportFormat;
+import com.phroque.livrosapi.services.BookImportService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/books/batch")
+@RequiredArgsConstructor
+public class BookImportController {
+	
+	static final String NDJSON = "application/x-ndjson";
+	static final String CSV = "text/csv";
+
+	private final BookImportService service;
+	
+	@PostMapping(consumes = NDJSON)
+	public BookImportResultDTO importNdjson(InputStream body) throws IOException {
+		return service.importBooks(body, BookImportFormat.NDJSON);
+	}
+	
+	@PostMapping(consumes = CSV)
+	public BookImportResultDTO importCsv(InputStream body) throws IOException {
+		return service.importBooks(body, BookImportFormat.CSV);
+	}
+}
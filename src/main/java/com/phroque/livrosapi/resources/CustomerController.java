@@ -0,0 +1,66 @@
+package com.phroque.livrosapi.resources;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.phroque.livrosapi.dto.CursorPageDTO;
+import com.phroque.livrosapi.dto.CustomerLoanDTO;
+import com.phroque.livrosapi.dto.CustomerLoanStatsDTO;
+import com.phroque.livrosapi.model.repository.CustomerLoan;
+import com.phroque.livrosapi.services.LoanCursor;
+import com.phroque.livrosapi.services.LoanService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/customers/{customer}")
+@RequiredArgsConstructor
+public class CustomerController {
+	
+	private static final int MAX_PAGE_SIZE = 1000;
+	
+	private final LoanService service;
+	
+	/**
+	 * Loans of the customer, newest first, optionally only the ones still
+	 * out. Pages follow the opaque {@code next} cursor.
+	 */
+	@GetMapping("loans")
+	public CursorPageDTO<CustomerLoanDTO> findLoans(@PathVariable String customer, 
+			@RequestParam(defaultValue = "false") boolean active,
+			@RequestParam(defaultValue = "") String cursor, 
+			@RequestParam(defaultValue = "20") int size) {
+		LoanCursor loanCursor = cursor.isEmpty() ? LoanCursor.first() : LoanCursor.decode(cursor);
+		int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		Slice<CustomerLoan> result = service.findByCustomer(customer, active, loanCursor, pageSize);
+		List<CustomerLoan> content = result.getContent();
+		String next = result.hasNext() ? loanCursor.next(content.get(content.size() - 1)).encode() : null;
+		return CursorPageDTO.<CustomerLoanDTO>builder()
+				.content(content.stream().map(CustomerController::toDto).collect(Collectors.toList()))
+				.size(pageSize)
+				.next(next)
+				.build();
+	}
+	
+	@GetMapping("stats")
+	public CustomerLoanStatsDTO getStats(@PathVariable String customer) {
+		return service.getCustomerStats(customer);
+	}
+	
+	private static CustomerLoanDTO toDto(CustomerLoan loan) {
+		return CustomerLoanDTO.builder()
+				.id(loan.getId())
+				.isbn(loan.getIsbn())
+				.title(loan.getTitle())
+				.loanDate(loan.getLoanDate())
+				.returned(loan.getReturned())
+				.build();
+	}
+}
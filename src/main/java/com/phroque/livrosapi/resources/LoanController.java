@@ -1,11 +1,16 @@
 package com.phroque.livrosapi.resources;
 
 import java.time.LocalDate;
+import java.util.List;
+
+import javax.validation.Valid;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -13,11 +18,19 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.phroque.livrosapi.dto.LoanBatchDTO;
+import com.phroque.livrosapi.dto.LoanBatchResultDTO;
 import com.phroque.livrosapi.dto.LoanDTO;
+import com.phroque.livrosapi.dto.LoanMapper;
+import com.phroque.livrosapi.dto.LoanReturnDTO;
+import com.phroque.livrosapi.dto.LoanReturnResultDTO;
+import com.phroque.livrosapi.dto.ReturnedLoanDTO;
 import com.phroque.livrosapi.exception.ApiErrors;
+import com.phroque.livrosapi.exception.BusinessException;
 import com.phroque.livrosapi.model.entity.Book;
 import com.phroque.livrosapi.model.entity.Loan;
 import com.phroque.livrosapi.services.BookService;
+import com.phroque.livrosapi.services.LoanBatchService;
 import com.phroque.livrosapi.services.LoanService;
 
 import lombok.RequiredArgsConstructor;
@@ -29,23 +42,46 @@ public class LoanController {
 
 	private final LoanService service;
 	private final BookService bookService;
+	private final LoanMapper mapper;
+	private final LoanBatchService batchService;
 	
 	@PostMapping
 	@ResponseStatus(HttpStatus.CREATED)
-	public Long create(@RequestBody LoanDTO dto) {
+	public Long create(@RequestBody @Valid LoanDTO dto) {
 		
 		Book book =  bookService.getBookByIsbn(dto.getIsbn())
 				.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST,"Book not found for passed isbn"));
 		
-		Loan entity = Loan.builder()
-							.book(book)
-							.customer(dto.getCustomer())
-							.loanDate(LocalDate.now())
-						.build();
+		Loan entity = mapper.toEntity(dto, book);
+		entity.setLoanDate(LocalDate.now());
 		entity = service.save(entity);
 		
 		return entity.getId();
 	}
 	
+	@PostMapping("batch")
+	public LoanBatchResultDTO createBatch(@RequestBody @Valid LoanBatchDTO dto) {
+		return batchService.createLoans(dto.getLoans(), LocalDate.now());
+	}
+	
+	@PatchMapping("{id}")
+	@ResponseStatus(HttpStatus.OK)
+	public void returnLoan(@PathVariable Long id, @RequestBody ReturnedLoanDTO dto) {
+		if(!Boolean.TRUE.equals(dto.getReturned())) {
+			throw new BusinessException("Only returning a loan is supported.");
+		}
+		LoanReturnResultDTO result = service.returnLoans(List.of(id));
+		if(!result.getNotFound().isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		if(!result.getAlreadyReturned().isEmpty()) {
+			throw new BusinessException("Loan already returned");
+		}
+	}
+	
+	@PostMapping("returns")
+	public LoanReturnResultDTO returnLoans(@RequestBody @Valid LoanReturnDTO dto) {
+		return service.returnLoans(dto.getIds());
+	}
 	
 }
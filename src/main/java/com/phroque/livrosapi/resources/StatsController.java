@@ -0,0 +1,79 @@
+package com.phroque.livrosapi.resources;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.phroque.livrosapi.dto.AuthorStatsDTO;
+import com.phroque.livrosapi.dto.BookLoanStatsDTO;
+import com.phroque.livrosapi.dto.CatalogStatsDTO;
+import com.phroque.livrosapi.dto.StatsRebuildResultDTO;
+import com.phroque.livrosapi.services.CatalogStats;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Catalog aggregates as this instance counts them; other instances' writes
+ * are included once its periodic refresh, or a rebuild, has run.
+ */
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+public class StatsController {
+	
+	private static final int MAX_TOP = 100;
+	
+	private final CatalogStats stats;
+	
+	@GetMapping
+	public CatalogStatsDTO get() {
+		return CatalogStatsDTO.builder()
+				.books(stats.getBooks())
+				.authors(stats.getAuthors())
+				.loans(stats.getLoans())
+				.activeLoans(stats.getActiveLoans())
+				.build();
+	}
+	
+	@GetMapping("authors")
+	public List<AuthorStatsDTO> topAuthors(@RequestParam(defaultValue = "10") int top) {
+		return stats.topAuthors(limit(top)).stream()
+				.map(entry -> AuthorStatsDTO.builder().author(entry.getKey()).books(entry.getValue()).build())
+				.collect(Collectors.toList());
+	}
+	
+	@GetMapping(value = "authors", params = "name")
+	public AuthorStatsDTO getAuthor(@RequestParam String name) {
+		return AuthorStatsDTO.builder().author(name).books(stats.getBooksOf(name)).build();
+	}
+	
+	@GetMapping("books")
+	public List<BookLoanStatsDTO> topBooks(@RequestParam(defaultValue = "10") int top) {
+		return stats.topBooks(limit(top)).stream()
+				.map(entry -> BookLoanStatsDTO.builder().bookId(entry.getKey()).loans(entry.getValue()).build())
+				.collect(Collectors.toList());
+	}
+	
+	@GetMapping("books/{id}")
+	public BookLoanStatsDTO getBook(@PathVariable Long id) {
+		return BookLoanStatsDTO.builder().bookId(id).loans(stats.getLoansOf(id)).build();
+	}
+	
+	/**
+	 * Recomputes the aggregates from the tables, reporting what had drifted.
+	 */
+	@PostMapping("rebuild")
+	public StatsRebuildResultDTO rebuild() {
+		return stats.rebuild();
+	}
+	
+	private static int limit(int top) {
+		return Math.max(1, Math.min(top, MAX_TOP));
+	}
+}
@@ -0,0 +1,162 @@
+package com.phroque.livrosapi.services;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.phroque.livrosapi.config.ReadWriteRoutingDataSource;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Read-through cache for book lookups by id and by ISBN.
+ * <p>
+ * Books are cached by id only; the ISBN side maps an ISBN to an id and is
+ * verified against the cached book on every hit. Entries are only ever
+ * written by the cache's own per-key load, and invalidation of a key waits
+ * for an in-flight load of that key, so a read that raced with a write can
+ * not put the old row back after the write invalidated it. Loads, ISBN
+ * lookups and version reads go to the primary, so with read/write routing
+ * a lagging replica row is never cached, nor its version used to answer a
+ * revalidation. Callers always receive a copy, never the cached instance.
+ */
+@Component
+public class BookCache implements MeterBinder {
+
+	private final BookRepository repository;
+	private final Cache<Long, Book> books;
+	private final Cache<String, Long> isbns;
+
+	public BookCache(BookRepository repository,
+			@Value("${livros.book-cache.maximum-size:10000}") long maximumSize,
+			@Value("${livros.book-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+		this.repository = repository;
+		this.books = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+		this.isbns = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(expireAfterWrite)
+				.recordStats()
+				.build();
+	}
+
+	public Optional<Book> getById(Long id) {
+		if(id == null) {
+			return Optional.empty();
+		}
+		Book book = books.get(id, key -> ReadWriteRoutingDataSource.onPrimary(
+				() -> repository.findById(key).map(BookCache::copy).orElse(null)));
+		return Optional.ofNullable(book).map(BookCache::copy);
+	}
+
+	/**
+	 * Cached copy of the book, without going to the table on a miss.
+	 */
+	public Optional<Book> peek(Long id) {
+		return Optional.ofNullable(id == null ? null : books.getIfPresent(id)).map(BookCache::copy);
+	}
+
+	/**
+	 * Version of the book without loading it: taken from the cached entry
+	 * when there is one, otherwise read alone from the primary's table.
+	 */
+	public Optional<Long> getVersion(Long id) {
+		if(id == null) {
+			return Optional.empty();
+		}
+		Book cached = books.getIfPresent(id);
+		if(cached != null) {
+			return Optional.ofNullable(cached.getVersion());
+		}
+		return ReadWriteRoutingDataSource.onPrimary(() -> repository.findVersionById(id));
+	}
+
+	public Optional<Book> getByIsbn(String isbn) {
+		if(isbn == null) {
+			return Optional.empty();
+		}
+		Long id = isbns.getIfPresent(isbn);
+		if(id != null) {
+			Optional<Book> book = getById(id);
+			if(book.isPresent() && isbn.equals(book.get().getIsbn())) {
+				return book;
+			}
+			isbns.invalidate(isbn);
+		}
+		Optional<Book> book = ReadWriteRoutingDataSource.onPrimary(() -> repository.findByIsbn(isbn));
+		book.ifPresent(found -> isbns.put(isbn, found.getId()));
+		return book.map(BookCache::copy);
+	}
+
+	/**
+	 * Drops the cached entries of the book, after commit when called inside
+	 * a transaction, so a concurrent read can not cache the pre-commit row.
+	 */
+	public void invalidate(Book book) {
+		if(book == null) {
+			return;
+		}
+		evict(book.getId(), book.getIsbn());
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict(book.getId(), book.getIsbn());
+				}
+			});
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, books, "books");
+		CaffeineCacheMetrics.monitor(registry, isbns, "book-isbns");
+	}
+
+	public CacheStats getBookStats() {
+		return books.stats();
+	}
+
+	public CacheStats getIsbnStats() {
+		return isbns.stats();
+	}
+
+	Cache<Long, Book> books() {
+		return books;
+	}
+
+	Cache<String, Long> isbns() {
+		return isbns;
+	}
+
+	private void evict(Long id, String isbn) {
+		if(id != null) {
+			Book cached = books.getIfPresent(id);
+			if(cached != null && cached.getIsbn() != null) {
+				isbns.invalidate(cached.getIsbn());
+			}
+			books.invalidate(id);
+		}
+		if(isbn != null) {
+			isbns.invalidate(isbn);
+		}
+	}
+
+	private static Book copy(Book book) {
+		return book.toBuilder().build();
+	}
+}
@@ -0,0 +1,97 @@
+package com.phroque.livrosapi.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookSpecifications;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort property and
+ * direction plus the (sort value, id) of the last book already returned.
+ * Books without a value for the property sort as the lowest values, first
+ * in ascending order and last in descending order.
+ */
+public final class BookCursor {
+
+	private static final Set<String> SORTABLE = Set.of("id", "title", "author", "isbn");
+	private static final String SEPARATOR = ":";
+	// prefixes a present value, so a null value (nothing) differs from an empty one
+	private static final String VALUE = "=";
+
+	private final String property;
+	private final Direction direction;
+	private final Long lastId;
+	private final String lastValue;
+
+	private BookCursor(String property, Direction direction, Long lastId, String lastValue) {
+		this.property = property;
+		this.direction = direction;
+		this.lastId = lastId;
+		this.lastValue = lastValue;
+	}
+
+	public static BookCursor first(Sort sort) {
+		List<Order> orders = sort.toList();
+		if(orders.isEmpty()) {
+			return new BookCursor("id", Direction.ASC, null, null);
+		}
+		Order order = orders.get(0);
+		if(orders.size() > 1 || !SORTABLE.contains(order.getProperty())) {
+			throw new BusinessException("Invalid sort property for cursor pagination.");
+		}
+		return new BookCursor(order.getProperty(), order.getDirection(), null, null);
+	}
+
+	public static BookCursor decode(String token) {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = decoded.split(SEPARATOR, 4);
+			if(parts.length != 4 || !SORTABLE.contains(parts[0]) || !(parts[3].isEmpty() || parts[3].startsWith(VALUE))) {
+				throw new BusinessException("Invalid cursor.");
+			}
+			String lastValue = parts[3].isEmpty() ? null : parts[3].substring(VALUE.length());
+			return new BookCursor(parts[0], Direction.fromString(parts[1]), Long.valueOf(parts[2]), lastValue);
+		} catch (IllegalArgumentException e) {
+			throw new BusinessException("Invalid cursor.");
+		}
+	}
+
+	public String encode() {
+		String raw = String.join(SEPARATOR, property, direction.name(), String.valueOf(lastId), lastValue == null ? "" : VALUE + lastValue);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public BookCursor next(Book last) {
+		return new BookCursor(property, direction, last.getId(), valueOf(last));
+	}
+
+	public Sort getSort() {
+		if("id".equals(property)) {
+			return Sort.by(direction, "id");
+		}
+		Order order = new Order(direction, property);
+		return Sort.by(direction.isAscending() ? order.nullsFirst() : order.nullsLast()).and(Sort.by(direction, "id"));
+	}
+
+	public Specification<Book> toSpecification() {
+		return BookSpecifications.after(property, direction.isAscending(), lastValue, lastId);
+	}
+
+	private String valueOf(Book book) {
+		switch(property) {
+			case "title": return book.getTitle();
+			case "author": return book.getAuthor();
+			case "isbn": return book.getIsbn();
+			default: return null;
+		}
+	}
+}
@@ -0,0 +1,14 @@
+package com.phroque.livrosapi.services;
+
+import java.util.Collection;
+
+import com.phroque.livrosapi.dto.BookDeletionResultDTO;
+import com.phroque.livrosapi.model.entity.Book;
+
+public interface BookDeletionService {
+
+	BookDeletionResultDTO deleteAll(Collection<Long> ids);
+
+	BookDeletionResultDTO deleteAll(Book filter);
+
+}
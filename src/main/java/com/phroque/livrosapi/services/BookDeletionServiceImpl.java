@@ -0,0 +1,148 @@
+package com.phroque.livrosapi.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phroque.livrosapi.dto.BookDeletionResultDTO;
+import com.phroque.livrosapi.exception.Constraints;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.BookSpecifications;
+
+/**
+ * Deletes books set-based, one short transaction per batch: the batch's
+ * ids, isbns and text fields are read in id order and removed, in the same
+ * transaction, with a single DELETE that re-applies the filter. Only books
+ * whose delete removed a row leave the indexes and the stats, so a row that
+ * changed or went away meanwhile, or a concurrent deletion of the same
+ * books, is not counted twice.
+ */
+@Service
+public class BookDeletionServiceImpl implements BookDeletionService {
+
+	private final BookRepository repository;
+	private final IsbnIndex isbnIndex;
+	private final BookTextIndex textIndex;
+	private final BookCache cache;
+	private final CatalogStats stats;
+	private final BookReadCoalescer reads;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+
+	public BookDeletionServiceImpl(BookRepository repository, IsbnIndex isbnIndex, BookTextIndex textIndex, BookCache cache, CatalogStats stats,
+			BookReadCoalescer reads, PlatformTransactionManager transactionManager, @Value("${livros.book-deletion.batch-size:500}") int batchSize) {
+		this.repository = repository;
+		this.isbnIndex = isbnIndex;
+		this.textIndex = textIndex;
+		this.cache = cache;
+		this.stats = stats;
+		this.reads = reads;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public BookDeletionResultDTO deleteAll(Collection<Long> ids) {
+		BookDeletionResultDTO result = new BookDeletionResultDTO();
+		long[] sorted = ids.stream().distinct().sorted().mapToLong(Long::longValue).toArray();
+		for(int from = 0; from < sorted.length; from += batchSize) {
+			long[] chunk = Arrays.copyOfRange(sorted, from, Math.min(from + batchSize, sorted.length));
+			int inUse = result.getInUse().size();
+			Set<Long> found = deleteBatch(BookSpecifications.idIn(chunk), null, result).deleted.stream()
+					.map(Book::getId)
+					.collect(Collectors.toCollection(HashSet::new));
+			found.addAll(result.getInUse().subList(inUse, result.getInUse().size()));
+			Arrays.stream(chunk).filter(id -> !found.contains(id)).forEach(result.getNotFound()::add);
+		}
+		return result;
+	}
+
+	@Override
+	public BookDeletionResultDTO deleteAll(Book filter) {
+		BookDeletionResultDTO result = new BookDeletionResultDTO();
+		Specification<Book> spec = BookSpecifications.matching(filter);
+		Long lastId = null;
+		List<Book> read;
+		do {
+			read = deleteBatch(spec, lastId, result).read;
+			// books still loaned stay behind, so seek past the whole batch
+			if(!read.isEmpty()) {
+				lastId = read.get(read.size() - 1).getId();
+			}
+		} while(read.size() == batchSize);
+		return result;
+	}
+
+	/**
+	 * Deletes the next batch after {@code afterId}. When the DELETE does not
+	 * remove every book read, or a book is still referenced by a loan, the
+	 * batch is rolled back and retried book by book, and loaned books are
+	 * reported in use.
+	 */
+	private Batch deleteBatch(Specification<Book> spec, Long afterId, BookDeletionResultDTO result) {
+		Batch batch = new Batch();
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				batch.read = repository.findSummaries(spec, afterId, batchSize);
+				if(batch.read.isEmpty()) {
+					batch.deleted = batch.read;
+				} else if(repository.removeAll(spec, ids(batch.read)) == batch.read.size()) {
+					batch.deleted = batch.read;
+				} else {
+					status.setRollbackOnly();
+				}
+			});
+		} catch (DataIntegrityViolationException e) {
+			batch.deleted = null;
+		}
+		if(batch.deleted == null) {
+			batch.deleted = batch.read.stream().filter(book -> deleteOne(spec, book, result)).collect(Collectors.toList());
+		}
+		batch.deleted.forEach(book -> {
+			cache.invalidate(book);
+			isbnIndex.remove(book.getIsbn());
+			textIndex.remove(book);
+			stats.bookRemoved(book.getAuthor());
+		});
+		if(!batch.deleted.isEmpty()) {
+			reads.invalidate();
+		}
+		result.setDeleted(result.getDeleted() + batch.deleted.size());
+		return batch;
+	}
+
+	private boolean deleteOne(Specification<Book> spec, Book book, BookDeletionResultDTO result) {
+		try {
+			return transactionTemplate.execute(status -> repository.removeAll(spec, List.of(book.getId()))) > 0;
+		} catch (DataIntegrityViolationException e) {
+			if(!Constraints.isViolated(e, BookServiceImpl.LOAN_CONSTRAINT)) {
+				throw e;
+			}
+			result.getInUse().add(book.getId());
+			return false;
+		}
+	}
+
+	private static List<Long> ids(List<Book> books) {
+		return books.stream().map(Book::getId).collect(Collectors.toList());
+	}
+
+	/**
+	 * Books read for a batch and those of them actually deleted.
+	 */
+	private static final class Batch {
+		private List<Book> read = List.of();
+		private List<Book> deleted;
+	}
+}
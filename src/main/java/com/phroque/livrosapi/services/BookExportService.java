@@ -0,0 +1,11 @@
+package com.phroque.livrosapi.services;
+
+import java.util.function.Consumer;
+
+import com.phroque.livrosapi.model.entity.Book;
+
+public interface BookExportService {
+
+	void export(Book filter, Consumer<Book> consumer);
+
+}
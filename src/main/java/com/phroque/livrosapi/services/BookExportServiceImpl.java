@@ -0,0 +1,42 @@
+package com.phroque.livrosapi.services;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.BookSpecifications;
+
+@Service
+public class BookExportServiceImpl implements BookExportService {
+
+	private final BookRepository repository;
+	private final int fetchSize;
+
+	public BookExportServiceImpl(BookRepository repository, 
+			@Value("${livros.export.fetch-size:500}") int fetchSize) {
+		this.repository = repository;
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Hands every book matching the filter to the consumer, in id order,
+	 * detaching each one afterwards so the persistence context stays empty
+	 * however many rows are exported.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void export(Book filter, Consumer<Book> consumer) {
+		try (Stream<Book> books = repository.stream(BookSpecifications.matching(filter), Sort.by("id"), fetchSize)) {
+			books.forEach(book -> {
+				consumer.accept(book);
+				repository.detach(book);
+			});
+		}
+	}
+}
@@ -0,0 +1,6 @@
+package com.phroque.livrosapi.services;
+
+public enum BookImportFormat {
+	NDJSON,
+	CSV
+}
@@ -0,0 +1,12 @@
+package com.phroque.livrosapi.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.phroque.livrosapi.dto.BookImportResultDTO;
+
+public interface BookImportService {
+
+	BookImportResultDTO importBooks(InputStream input, BookImportFormat format) throws IOException;
+
+}
@@ -0,0 +1,272 @@
+package com.phroque.livrosapi.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.BookImportResultDTO;
+import com.phroque.livrosapi.dto.BookImportRowDTO;
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+	private final BookRepository repository;
+	private final IsbnIndex isbnIndex;
+	private final BookTextIndex textIndex;
+	private final CatalogStats stats;
+	private final BookReadCoalescer reads;
+	private final BookMapper mapper;
+	private final Validator validator;
+	private final ObjectReader jsonReader;
+	private final TransactionTemplate transactionTemplate;
+	private final EntityManager entityManager;
+	private final int batchSize;
+
+	public BookImportServiceImpl(BookRepository repository, IsbnIndex isbnIndex, BookTextIndex textIndex, CatalogStats stats, BookReadCoalescer reads,
+			BookMapper mapper, Validator validator,
+			ObjectMapper objectMapper, PlatformTransactionManager transactionManager, EntityManager entityManager,
+			@Value("${livros.import.batch-size:500}") int batchSize) {
+		this.repository = repository;
+		this.isbnIndex = isbnIndex;
+		this.textIndex = textIndex;
+		this.stats = stats;
+		this.reads = reads;
+		this.mapper = mapper;
+		this.validator = validator;
+		this.jsonReader = objectMapper.readerFor(BookDTO.class);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.entityManager = entityManager;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	public BookImportResultDTO importBooks(InputStream input, BookImportFormat format) throws IOException {
+		BookImportResultDTO result = new BookImportResultDTO();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+			long lineNumber = 0;
+			List<String> header = null;
+			if(format == BookImportFormat.CSV) {
+				String headerLine = reader.readLine();
+				lineNumber++;
+				if(headerLine == null) {
+					return result;
+				}
+				header = parseCsvLine(headerLine).stream()
+						.map(column -> column.trim().toLowerCase(Locale.ROOT))
+						.collect(Collectors.toList());
+			}
+
+			List<ImportRow> chunk = new ArrayList<>(batchSize);
+			String line;
+			while((line = reader.readLine()) != null) {
+				lineNumber++;
+				if(line.isBlank()) {
+					continue;
+				}
+				result.setTotal(result.getTotal() + 1);
+				ImportRow row = format == BookImportFormat.CSV ? parseCsvRow(header, line, lineNumber) : parseJsonRow(line, lineNumber);
+				if(row.errors.isEmpty()) {
+					chunk.add(row);
+				} else {
+					reject(result, row, row.errors);
+				}
+				if(chunk.size() >= batchSize) {
+					insert(chunk, result);
+					chunk.clear();
+				}
+			}
+			insert(chunk, result);
+		}
+		return result;
+	}
+
+	private void insert(List<ImportRow> chunk, BookImportResultDTO result) {
+		List<ImportRow> accepted = removeDuplicates(chunk, result);
+		if(accepted.isEmpty()) {
+			return;
+		}
+		List<Book> books = accepted.stream().map(row -> row.book).collect(Collectors.toList());
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				repository.saveAll(books);
+				repository.flush();
+				entityManager.clear();
+			});
+			books.forEach(book -> {
+				isbnIndex.add(book.getIsbn());
+				textIndex.add(book);
+				stats.bookAdded(book.getAuthor());
+			});
+			reads.invalidate();
+			result.setImported(result.getImported() + books.size());
+		} catch (DataIntegrityViolationException e) {
+			// a concurrent insert won the race for some isbn of the chunk: retry row by row
+			accepted.forEach(row -> insertOne(row, result));
+		}
+	}
+
+	/**
+	 * Inserts a fresh copy of the row's book: the rolled-back flush left an
+	 * id and a version on it, which would turn the save into a merge.
+	 */
+	private void insertOne(ImportRow row, BookImportResultDTO result) {
+		Book book = row.book.toBuilder().id(null).version(null).build();
+		try {
+			Book saved = transactionTemplate.execute(status -> repository.saveAndFlush(book));
+			isbnIndex.add(saved.getIsbn());
+			textIndex.add(saved);
+			stats.bookAdded(saved.getAuthor());
+			reads.invalidate();
+			result.setImported(result.getImported() + 1);
+		} catch (DataIntegrityViolationException e) {
+			reject(result, row, Collections.singletonList("Isbn já cadastrado."));
+		}
+	}
+
+	private List<ImportRow> removeDuplicates(List<ImportRow> chunk, BookImportResultDTO result) {
+		Set<String> seen = new HashSet<>();
+		Set<String> candidates = new HashSet<>();
+		List<ImportRow> unique = new ArrayList<>(chunk.size());
+		for(ImportRow row : chunk) {
+			String isbn = row.book.getIsbn();
+			if(!seen.add(isbn)) {
+				reject(result, row, Collections.singletonList("Isbn repetido no arquivo."));
+				continue;
+			}
+			if(isbnIndex.mightContain(isbn)) {
+				candidates.add(isbn);
+			}
+			unique.add(row);
+		}
+		if(candidates.isEmpty()) {
+			return unique;
+		}
+
+		Set<String> existing = new HashSet<>(repository.findExistingIsbns(candidates));
+		candidates.stream().filter(isbn -> !existing.contains(isbn)).forEach(isbn -> isbnIndex.recordFalsePositive());
+		List<ImportRow> accepted = new ArrayList<>(unique.size());
+		for(ImportRow row : unique) {
+			if(existing.contains(row.book.getIsbn())) {
+				reject(result, row, Collections.singletonList("Isbn já cadastrado."));
+			} else {
+				accepted.add(row);
+			}
+		}
+		return accepted;
+	}
+
+	private void reject(BookImportResultDTO result, ImportRow row, List<String> errors) {
+		result.setRejected(result.getRejected() + 1);
+		if(result.getRejectedRows().size() >= BookImportResultDTO.MAX_REJECTED_ROWS) {
+			return;
+		}
+		result.getRejectedRows().add(BookImportRowDTO.builder()
+				.line(row.line)
+				.isbn(row.book == null ? null : row.book.getIsbn())
+				.errors(errors)
+				.build());
+	}
+
+	private ImportRow parseJsonRow(String line, long lineNumber) {
+		try {
+			BookDTO dto = jsonReader.readValue(line);
+			if(dto == null) {
+				return new ImportRow(lineNumber, null, Collections.singletonList("Invalid json row."));
+			}
+			return validate(dto, lineNumber);
+		} catch (JsonProcessingException e) {
+			return new ImportRow(lineNumber, null, Collections.singletonList("Invalid json row."));
+		}
+	}
+
+	private ImportRow parseCsvRow(List<String> header, String line, long lineNumber) {
+		List<String> values = parseCsvLine(line);
+		BookDTO dto = new BookDTO();
+		for(int i = 0; i < header.size() && i < values.size(); i++) {
+			switch(header.get(i)) {
+				case "title": dto.setTitle(values.get(i)); break;
+				case "author": dto.setAuthor(values.get(i)); break;
+				case "isbn": dto.setIsbn(values.get(i)); break;
+				default: break;
+			}
+		}
+		return validate(dto, lineNumber);
+	}
+
+	private ImportRow validate(BookDTO dto, long lineNumber) {
+		Book book = mapper.toEntity(dto);
+		book.setId(null);
+		Set<ConstraintViolation<BookDTO>> violations = validator.validate(dto);
+		List<String> errors = violations.stream()
+				.map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+				.sorted()
+				.collect(Collectors.toList());
+		return new ImportRow(lineNumber, book, errors);
+	}
+
+	static List<String> parseCsvLine(String line) {
+		List<String> values = new ArrayList<>();
+		StringBuilder value = new StringBuilder();
+		boolean quoted = false;
+		for(int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if(quoted) {
+				if(c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					value.append('"');
+					i++;
+				} else if(c == '"') {
+					quoted = false;
+				} else {
+					value.append(c);
+				}
+			} else if(c == '"') {
+				quoted = true;
+			} else if(c == ',') {
+				values.add(value.toString());
+				value.setLength(0);
+			} else {
+				value.append(c);
+			}
+		}
+		values.add(value.toString());
+		return values;
+	}
+
+	private static class ImportRow {
+		private final long line;
+		private final Book book;
+		private final List<String> errors;
+
+		private ImportRow(long line, Book book, List<String> errors) {
+			this.line = line;
+			this.book = book;
+			this.errors = errors;
+		}
+	}
+}
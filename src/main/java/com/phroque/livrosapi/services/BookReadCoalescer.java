@@ -0,0 +1,131 @@
+package com.phroque.livrosapi.services;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.phroque.livrosapi.config.ReadWriteRoutingDataSource;
+import com.phroque.livrosapi.config.ReadWriteRoutingDataSource.Route;
+import com.phroque.livrosapi.model.entity.Book;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Coalesces concurrent identical book reads: by id, by ISBN, and searches
+ * by filter and page, with the text filters lower-cased, as the search
+ * matches them case-insensitively. Identical reads that arrive while one is in flight
+ * share its database call ({@code livros.book.reads.saved}) and wait for it
+ * at most {@code livros.read-coalescing.max-wait}.
+ * <p>
+ * Must be called outside a transaction, so waiters do not hold a
+ * connection. A committed book write makes the next reads start new calls,
+ * so a client never joins a read that started before its own write. Reads
+ * are only shared within a route: a client pinned to the primary after a
+ * write never joins a read running against a lagging replica.
+ */
+@Component
+public class BookReadCoalescer implements MeterBinder {
+
+	private final SingleFlight<List<Object>, Optional<Book>> byId;
+	private final SingleFlight<List<Object>, Optional<Book>> byIsbn;
+	private final SingleFlight<List<Object>, Page<Book>> find;
+
+	public BookReadCoalescer(@Value("${livros.read-coalescing.max-wait:2s}") Duration maxWait) {
+		this.byId = new SingleFlight<>(maxWait);
+		this.byIsbn = new SingleFlight<>(maxWait);
+		this.find = new SingleFlight<>(maxWait);
+	}
+
+	/**
+	 * Each caller gets its own copy of the book.
+	 */
+	public Optional<Book> getById(Long id, Supplier<Optional<Book>> read) {
+		return byId.execute(Arrays.asList(route(), id), read).map(BookReadCoalescer::copy);
+	}
+
+	/**
+	 * Each caller gets its own copy of the book.
+	 */
+	public Optional<Book> getByIsbn(String isbn, Supplier<Optional<Book>> read) {
+		return byIsbn.execute(Arrays.asList(route(), isbn), read).map(BookReadCoalescer::copy);
+	}
+
+	/**
+	 * The page is shared by the callers of the same search and must not be
+	 * modified.
+	 */
+	public Page<Book> find(Book filter, Pageable pageRequest, Supplier<Page<Book>> read) {
+		List<Object> key = Arrays.asList(route(), filter.getId(), filter.getVersion(),
+				lowerCase(filter.getTitle()), lowerCase(filter.getAuthor()), lowerCase(filter.getIsbn()),
+				pageRequest.isPaged() ? pageRequest.getPageNumber() : null, 
+				pageRequest.isPaged() ? pageRequest.getPageSize() : null, 
+				pageRequest.getSort());
+		return find.execute(key, read);
+	}
+
+	/**
+	 * Called on book writes: takes effect now and again after commit when
+	 * inside a transaction, so no read can join a call that saw the old rows.
+	 */
+	public void invalidate() {
+		clear();
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					clear();
+				}
+			});
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		bind(registry, "by-id", byId);
+		bind(registry, "by-isbn", byIsbn);
+		bind(registry, "find", find);
+	}
+
+	private static void bind(MeterRegistry registry, String read, SingleFlight<?, ?> flight) {
+		FunctionCounter.builder("livros.book.reads.saved", flight, SingleFlight::getSaved)
+				.tag("read", read)
+				.register(registry);
+		FunctionCounter.builder("livros.book.reads.wait.timeouts", flight, SingleFlight::getTimedOut)
+				.tag("read", read)
+				.register(registry);
+	}
+
+	public long getSaved() {
+		return byId.getSaved() + byIsbn.getSaved() + find.getSaved();
+	}
+
+	private void clear() {
+		byId.clear();
+		byIsbn.clear();
+		find.clear();
+	}
+
+	private static Route route() {
+		return ReadWriteRoutingDataSource.isPinnedToPrimary() ? Route.PRIMARY : Route.REPLICA;
+	}
+
+	private static String lowerCase(String value) {
+		return value == null ? null : value.toLowerCase(Locale.ROOT);
+	}
+
+	private static Book copy(Book book) {
+		return book.toBuilder().build();
+	}
+}
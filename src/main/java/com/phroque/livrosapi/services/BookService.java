@@ -4,6 +4,7 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.phroque.livrosapi.model.entity.Book;
 
@@ -13,12 +14,22 @@ public interface BookService {
 
 	Optional<Book> getById(Long id);
 
+	Optional<Long> getVersion(Long id);
+
 	void delete(Book book);
 
+	boolean deleteById(Long id, Long expectedVersion);
+
 	Book update(Book map);
 
+	boolean patch(Book changes);
+
+	Optional<Book> replace(Book book);
+
 	Page<Book> find(Book filter, Pageable pageRequest);
 
+	Slice<Book> findAfter(Book filter, BookCursor cursor, int size);
+
 	Optional<Book> getBookByIsbn(String isbn);
 
 }
@@ -1,59 +1,246 @@
 package com.phroque.livrosapi.services;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.ExampleMatcher.StringMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.exception.Constraints;
 import com.phroque.livrosapi.model.entity.Book;
 import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.BookSpecifications;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "livros.service", histogram = true)
 public class BookServiceImpl implements BookService {
 	
+	static final String ISBN_CONSTRAINT = "uk_book_isbn";
+	static final String LOAN_CONSTRAINT = "fk_loan_book";
+	
 	private BookRepository repository;
+	private IsbnIndex isbnIndex;
+	private BookTextIndex textIndex;
+	private BookCache cache;
+	private CatalogStats stats;
+	private BookReadCoalescer reads;
 	
-	public BookServiceImpl(BookRepository repository) {	
+	public BookServiceImpl(BookRepository repository, IsbnIndex isbnIndex, BookTextIndex textIndex, BookCache cache, CatalogStats stats,
+			BookReadCoalescer reads) {	
 		this.repository = repository;
+		this.isbnIndex = isbnIndex;
+		this.textIndex = textIndex;
+		this.cache = cache;
+		this.stats = stats;
+		this.reads = reads;
 	}
 
 	@Override
 	public Book save(Book book) {
-		if(repository.existsByIsbn(book.getIsbn())) {
-			throw new BusinessException("Isbn já cadastrado.");
+		if(isbnIndex.mightContain(book.getIsbn())) {
+			if(repository.existsByIsbn(book.getIsbn())) {
+				throw new BusinessException("Isbn já cadastrado.");
+			}
+			isbnIndex.recordFalsePositive();
+		}
+		Book savedBook;
+		try {
+			savedBook = repository.save(book);
+		} catch (DataIntegrityViolationException e) {
+			if(Constraints.isViolated(e, ISBN_CONSTRAINT)) {
+				throw new BusinessException("Isbn já cadastrado.");
+			}
+			throw e;
 		}
-		return repository.save(book);
+		isbnIndex.add(savedBook.getIsbn());
+		textIndex.add(savedBook);
+		cache.invalidate(savedBook);
+		reads.invalidate();
+		stats.bookAdded(savedBook.getAuthor());
+		return savedBook;
 	}
 
+	/**
+	 * Not transactional, so concurrent misses wait for the shared read
+	 * without holding a connection; the repository read is read-only.
+	 */
 	@Override
 	public Optional<Book> getById(Long id) {
-		return this.repository.findById(id);
+		if(id == null) {
+			return Optional.empty();
+		}
+		return cache.peek(id).or(() -> reads.getById(id, () -> cache.getById(id)));
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Long> getVersion(Long id) {
+		return cache.getVersion(id);
+	}
+
+	/**
+	 * Deletes the book with a single DELETE, checking its version when it has
+	 * one. The indexes are only cleaned when a row was removed: taking an
+	 * isbn that was never added out of the isbn index would clear counters
+	 * other isbns share.
+	 */
 	@Override
 	public void delete(Book book) {
 		if(book == null || book.getId() == null) {
 			throw new IllegalArgumentException("Book id cant be null.");
 		}
-		this.repository.delete(book);
-		
+		Optional<Book> removed = remove(book.getId(), book.getVersion());
+		if(removed.isEmpty()) {
+			if(book.getVersion() != null && repository.existsById(book.getId())) {
+				throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+			}
+			return;
+		}
+		removed(removed.get());
+	}
+
+	/**
+	 * Deletes the book with a single conditional DELETE, without loading it:
+	 * the repository reads the isbn, title and author the indexes and the
+	 * stats are cleaned with under the DELETE's row lock.
+	 */
+	@Override
+	public boolean deleteById(Long id, Long expectedVersion) {
+		if(id == null) {
+			throw new IllegalArgumentException("Book id cant be null.");
+		}
+		Optional<Book> removed = remove(id, expectedVersion);
+		removed.ifPresent(this::removed);
+		return removed.isPresent();
+	}
+
+	/**
+	 * A book with loans, open or returned, is kept: the loans reference it.
+	 */
+	private Optional<Book> remove(Long id, Long expectedVersion) {
+		try {
+			return repository.remove(id, expectedVersion);
+		} catch (DataIntegrityViolationException e) {
+			if(Constraints.isViolated(e, LOAN_CONSTRAINT)) {
+				throw new BusinessException("Book has loans and can not be deleted.");
+			}
+			throw e;
+		}
 	}
 
+	private void removed(Book book) {
+		cache.invalidate(book);
+		reads.invalidate();
+		stats.bookRemoved(book.getAuthor());
+		isbnIndex.remove(book.getIsbn());
+		textIndex.remove(book);
+	}
+
+	/**
+	 * Loads the current row in the update's own transaction, so the merge
+	 * reuses it instead of reading it again, and the previous author for the
+	 * stats costs no extra query.
+	 */
 	@Override
+	@Transactional
 	public Book update(Book book) {
 		if(book == null || book.getId() == null) {
 			throw new IllegalArgumentException("Book id cant be null.");
 		}
-		return this.repository.save(book);
+		String author = repository.findById(book.getId()).map(Book::getAuthor).orElse(null);
+		Book updatedBook = this.repository.save(book);
+		cache.invalidate(book);
+		reads.invalidate();
+		stats.authorChanged(author, updatedBook.getAuthor());
+		isbnIndex.addIfAbsent(updatedBook.getIsbn());
+		textIndex.add(updatedBook);
+		return updatedBook;
+	}
+
+	/**
+	 * Writes the non-null title and author of the changes straight to the
+	 * row, without loading the book; the repository reads the previous author
+	 * for the stats under the UPDATE's row lock. The text index only gains
+	 * the new trigrams, the stale ones just widen the candidates the search
+	 * filters.
+	 */
+	@Override
+	public boolean patch(Book changes) {
+		if(changes == null || changes.getId() == null) {
+			throw new IllegalArgumentException("Book id cant be null.");
+		}
+		if(changes.getTitle() == null && changes.getAuthor() == null && changes.getVersion() == null) {
+			return repository.existsById(changes.getId());
+		}
+		return write(changes).isPresent();
+	}
+
+	/**
+	 * Sets the title and author of the book like {@link #patch} does, both
+	 * of them, and returns the book as written, with its new version, or
+	 * empty when it does not exist or has another version.
+	 */
+	@Override
+	public Optional<Book> replace(Book book) {
+		if(book == null || book.getId() == null) {
+			throw new IllegalArgumentException("Book id cant be null.");
+		}
+		return write(book);
+	}
+
+	private Optional<Book> write(Book changes) {
+		Optional<Book> before = repository.patch(changes.getId(), changes.getVersion(), changes.getTitle(), changes.getAuthor());
+		if(before.isEmpty()) {
+			return before;
+		}
+		if(changes.getAuthor() != null) {
+			stats.authorChanged(before.get().getAuthor(), changes.getAuthor());
+		}
+		cache.invalidate(changes);
+		reads.invalidate();
+		textIndex.add(changes);
+		return before.map(book -> book.toBuilder()
+				.title(changes.getTitle() == null ? book.getTitle() : changes.getTitle())
+				.author(changes.getAuthor() == null ? book.getAuthor() : changes.getAuthor())
+				.version(book.getVersion() == null ? null : book.getVersion() + 1)
+				.build());
 	}
 
+	/**
+	 * Identical concurrent searches share one query; not transactional for
+	 * the same reason as {@link #getById}.
+	 */
 	@Override
 	public Page<Book> find(Book filter, Pageable pageRequest) {
+		return reads.find(filter, pageRequest, () -> search(filter, pageRequest));
+	}
+
+	private Page<Book> search(Book filter, Pageable pageRequest) {
+		if(textIndex.canSearch(filter)) {
+			long[] candidates = textIndex.candidates(filter);
+			if(candidates != null && candidates.length == 0) {
+				return Page.empty(pageRequest);
+			}
+			if(candidates != null) {
+				return page(repository.findAll(
+						BookSpecifications.matching(filter).and(BookSpecifications.idIn(candidates)), 
+						pageRequest.getSort()), pageRequest);
+			}
+		}
 		Example<Book> example = Example.of(filter, 
 				ExampleMatcher.matching()
 								.withIgnoreCase()
@@ -63,10 +250,37 @@ public class BookServiceImpl implements BookService {
 		return repository.findAll(example, pageRequest);
 	}
 
+	/**
+	 * The requested page of every match, which also gives the total without
+	 * sending the candidate ids again in a count query.
+	 */
+	private static Page<Book> page(List<Book> matches, Pageable pageRequest) {
+		if(pageRequest.isUnpaged()) {
+			return new PageImpl<>(matches, pageRequest, matches.size());
+		}
+		int from = (int) Math.min(pageRequest.getOffset(), matches.size());
+		int to = Math.min(from + pageRequest.getPageSize(), matches.size());
+		return new PageImpl<>(matches.subList(from, to), pageRequest, matches.size());
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<Book> findAfter(Book filter, BookCursor cursor, int size) {
+		List<Book> books = repository.findTop(
+				BookSpecifications.matching(filter).and(cursor.toSpecification()), 
+				cursor.getSort(), 
+				size + 1);
+		boolean hasNext = books.size() > size;
+		List<Book> content = hasNext ? books.subList(0, size) : books;
+		return new SliceImpl<>(content, PageRequest.of(0, size, cursor.getSort()), hasNext);
+	}
+
 	@Override
 	public Optional<Book> getBookByIsbn(String isbn) {
-		// TODO Auto-generated method stub
-		return null;
+		if(isbn == null) {
+			return Optional.empty();
+		}
+		return reads.getByIsbn(isbn, () -> cache.getByIsbn(isbn));
 	}
 
 	
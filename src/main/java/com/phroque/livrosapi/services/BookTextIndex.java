@@ -0,0 +1,257 @@
+package com.phroque.livrosapi.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trigram index over book titles and authors. It resolves a "contains"
+ * search term to the ids of the books that hold every trigram of the term,
+ * a superset of the real matches that is then checked by the database.
+ * Postings of an old title or author may survive an update; they only add
+ * candidates that the database check discards.
+ * <p>
+ * Writes of this instance update the index as they happen; books inserted
+ * or renamed by other instances are indexed by the scheduled
+ * {@link #refresh()} ({@code livros.text-index.refresh-interval}), which
+ * rebuilds it from the table, so until then a search on this instance may
+ * miss them.
+ */
+@Slf4j
+@Component
+public class BookTextIndex {
+
+	static final int GRAM = 3;
+
+	private final BookRepository repository;
+	private final int maxCandidates;
+	private final Object writes = new Object();
+	private volatile Trigrams trigrams = new Trigrams();
+	// the index a refresh is building, which also receives this instance's writes meanwhile
+	private Trigrams building;
+	private volatile boolean ready;
+
+	public BookTextIndex(BookRepository repository,
+			@Value("${livros.text-index.max-candidates:500}") int maxCandidates) {
+		this.repository = repository;
+		this.maxCandidates = maxCandidates;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void load() {
+		rebuild();
+		this.ready = true;
+		log.info("Text index loaded with {} title and {} author trigrams.", trigrams.titles.size(), trigrams.authors.size());
+	}
+
+	@Scheduled(initialDelayString = "${livros.text-index.refresh-interval:PT1M}", fixedDelayString = "${livros.text-index.refresh-interval:PT1M}")
+	@Transactional(readOnly = true)
+	public void refresh() {
+		rebuild();
+	}
+
+	private synchronized void rebuild() {
+		Trigrams fresh = new Trigrams();
+		synchronized (writes) {
+			building = fresh;
+		}
+		try (Stream<Object[]> rows = repository.streamTextFields()) {
+			rows.forEach(row -> fresh.add((Long) row[0], (String) row[1], (String) row[2]));
+		}
+		synchronized (writes) {
+			trigrams = fresh;
+			building = null;
+		}
+	}
+
+	public void add(Book book) {
+		add(book.getId(), book.getTitle(), book.getAuthor());
+	}
+
+	public void add(Long id, String title, String author) {
+		if(id == null) {
+			return;
+		}
+		synchronized (writes) {
+			trigrams.add(id, title, author);
+			if(building != null) {
+				building.add(id, title, author);
+			}
+		}
+	}
+
+	public void remove(Book book) {
+		if(book.getId() == null) {
+			return;
+		}
+		synchronized (writes) {
+			trigrams.remove(book.getId(), book.getTitle(), book.getAuthor());
+			if(building != null) {
+				building.remove(book.getId(), book.getTitle(), book.getAuthor());
+			}
+		}
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	/**
+	 * Whether the index can narrow a search on the filter's title or author.
+	 */
+	public boolean canSearch(Book filter) {
+		return ready && (searchable(filter.getTitle()) || searchable(filter.getAuthor()));
+	}
+
+	/**
+	 * Candidate ids for the filter, or {@code null} when there are more than
+	 * {@code maxCandidates} of them and the search should fall back to a scan.
+	 * The limit keeps the {@code IN} list the search sends small; the rows of
+	 * all candidates are loaded at once.
+	 */
+	public long[] candidates(Book filter) {
+		Trigrams current = trigrams;
+		List<Postings> lists = new ArrayList<>();
+		if(!collect(current.titles, filter.getTitle(), lists) || !collect(current.authors, filter.getAuthor(), lists)) {
+			return new long[0];
+		}
+		Postings smallest = lists.get(0);
+		for(Postings postings : lists) {
+			if(postings.size() < smallest.size()) {
+				smallest = postings;
+			}
+		}
+		long[] ids = smallest.toArray();
+		int count = 0;
+		for(long id : ids) {
+			boolean all = true;
+			for(int i = 0; i < lists.size() && all; i++) {
+				all = lists.get(i) == smallest || lists.get(i).contains(id);
+			}
+			if(all) {
+				ids[count++] = id;
+			}
+		}
+		return count > maxCandidates ? null : Arrays.copyOf(ids, count);
+	}
+
+	private boolean collect(Map<String, Postings> index, String term, List<Postings> lists) {
+		if(!searchable(term)) {
+			return true;
+		}
+		for(String gram : grams(term)) {
+			Postings postings = index.get(gram);
+			if(postings == null || postings.size() == 0) {
+				return false;
+			}
+			lists.add(postings);
+		}
+		return true;
+	}
+
+	private static boolean searchable(String term) {
+		return term != null && term.length() >= GRAM;
+	}
+
+	static Set<String> grams(String text) {
+		Set<String> grams = new LinkedHashSet<>();
+		if(text == null) {
+			return grams;
+		}
+		String normalized = text.toLowerCase(Locale.ROOT);
+		for(int i = 0; i + GRAM <= normalized.length(); i++) {
+			grams.add(normalized.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+	/**
+	 * Postings of the title and of the author trigrams.
+	 */
+	private static final class Trigrams {
+
+		private final Map<String, Postings> titles = new ConcurrentHashMap<>();
+		private final Map<String, Postings> authors = new ConcurrentHashMap<>();
+
+		void add(Long id, String title, String author) {
+			grams(title).forEach(gram -> titles.computeIfAbsent(gram, key -> new Postings()).add(id));
+			grams(author).forEach(gram -> authors.computeIfAbsent(gram, key -> new Postings()).add(id));
+		}
+
+		void remove(Long id, String title, String author) {
+			grams(title).forEach(gram -> remove(titles, gram, id));
+			grams(author).forEach(gram -> remove(authors, gram, id));
+		}
+
+		private static void remove(Map<String, Postings> index, String gram, Long id) {
+			Postings postings = index.get(gram);
+			if(postings != null) {
+				postings.remove(id);
+			}
+		}
+	}
+
+	/**
+	 * Sorted set of book ids. Ids come from a sequence, so new books are
+	 * almost always appended at the end.
+	 */
+	static final class Postings {
+
+		private long[] ids = new long[4];
+		private int size;
+
+		synchronized void add(long id) {
+			int position = Arrays.binarySearch(ids, 0, size, id);
+			if(position >= 0) {
+				return;
+			}
+			position = -position - 1;
+			if(size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			System.arraycopy(ids, position, ids, position + 1, size - position);
+			ids[position] = id;
+			size++;
+		}
+
+		synchronized void remove(long id) {
+			int position = Arrays.binarySearch(ids, 0, size, id);
+			if(position < 0) {
+				return;
+			}
+			System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+			size--;
+		}
+
+		synchronized boolean contains(long id) {
+			return Arrays.binarySearch(ids, 0, size, id) >= 0;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized long[] toArray() {
+			return Arrays.copyOf(ids, size);
+		}
+	}
+}
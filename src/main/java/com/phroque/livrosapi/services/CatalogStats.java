@@ -0,0 +1,256 @@
+package com.phroque.livrosapi.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.phroque.livrosapi.dto.StatsRebuildResultDTO;
+import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Catalog aggregates kept in memory: books per author, loans per book and
+ * the totals. Every write of books and loans adjusts them, after commit when
+ * it happens inside a transaction, so reading a count is O(1) and a top-k
+ * ranking O(k). {@link #rebuild()} recomputes them from the tables and
+ * reports how many entries had drifted.
+ * <p>
+ * The aggregates are per instance: only this instance's commits adjust them,
+ * so with several instances the writes of the others show up at the next
+ * scheduled {@link #refresh()} ({@code livros.stats.refresh-interval}).
+ */
+@Slf4j
+@Component
+public class CatalogStats {
+
+	private final BookRepository bookRepository;
+	private final LoanRepository loanRepository;
+
+	private final Ranking<String> booksByAuthor = new Ranking<>();
+	private final Ranking<Long> loansByBook = new Ranking<>();
+	private long books;
+	private long loans;
+	private long activeLoans;
+
+	public CatalogStats(BookRepository bookRepository, LoanRepository loanRepository) {
+		this.bookRepository = bookRepository;
+		this.loanRepository = loanRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void load() {
+		rebuild();
+		log.info("Catalog stats loaded with {} books, {} authors and {} loans.", getBooks(), getAuthors(), getLoans());
+	}
+
+	@Scheduled(initialDelayString = "${livros.stats.refresh-interval:PT5M}", fixedDelayString = "${livros.stats.refresh-interval:PT5M}")
+	@Transactional(readOnly = true)
+	public void refresh() {
+		StatsRebuildResultDTO result = rebuild();
+		if(result.getCorrectedAuthors() > 0 || result.getCorrectedBooks() > 0 || result.isCorrectedTotals()) {
+			log.info("Catalog stats refreshed, {} authors and {} books corrected.", result.getCorrectedAuthors(), result.getCorrectedBooks());
+		}
+	}
+
+	/**
+	 * Recomputes the aggregates from the tables and swaps them in. Writes
+	 * committed while the tables are read may be counted twice or missed, a
+	 * later rebuild settles them.
+	 */
+	@Transactional(readOnly = true)
+	public StatsRebuildResultDTO rebuild() {
+		Map<String, Long> authors = new HashMap<>();
+		try (Stream<Object[]> rows = bookRepository.countByAuthor()) {
+			rows.filter(row -> row[0] != null).forEach(row -> authors.put((String) row[0], (Long) row[1]));
+		}
+		long bookTotal = bookRepository.count();
+		Map<Long, Long> bookLoans = new HashMap<>();
+		long loanTotal = 0;
+		long activeTotal = 0;
+		try (Stream<Object[]> rows = loanRepository.countByBook()) {
+			for(Object[] row : (Iterable<Object[]>) rows::iterator) {
+				long count = (Long) row[1];
+				bookLoans.put((Long) row[0], count);
+				loanTotal += count;
+				activeTotal += row[2] == null ? 0 : ((Number) row[2]).longValue();
+			}
+		}
+		synchronized (this) {
+			StatsRebuildResultDTO result = StatsRebuildResultDTO.builder()
+					.correctedAuthors(booksByAuthor.replace(authors))
+					.correctedBooks(loansByBook.replace(bookLoans))
+					.correctedTotals(books != bookTotal || loans != loanTotal || activeLoans != activeTotal)
+					.build();
+			books = bookTotal;
+			loans = loanTotal;
+			activeLoans = activeTotal;
+			return result;
+		}
+	}
+
+	public void bookAdded(String author) {
+		afterCommit(() -> {
+			books++;
+			booksByAuthor.add(author, 1);
+		});
+	}
+
+	public void bookRemoved(String author) {
+		afterCommit(() -> {
+			books--;
+			booksByAuthor.add(author, -1);
+		});
+	}
+
+	public void authorChanged(String oldAuthor, String newAuthor) {
+		if(oldAuthor == null ? newAuthor == null : oldAuthor.equals(newAuthor)) {
+			return;
+		}
+		afterCommit(() -> {
+			booksByAuthor.add(oldAuthor, -1);
+			booksByAuthor.add(newAuthor, 1);
+		});
+	}
+
+	public void loaned(Long bookId) {
+		loaned(Map.of(bookId, 1l));
+	}
+
+	public void loaned(Map<Long, Long> loansByBookId) {
+		afterCommit(() -> loansByBookId.forEach((bookId, count) -> {
+			loans += count;
+			activeLoans += count;
+			loansByBook.add(bookId, count);
+		}));
+	}
+
+	public void returned(long count) {
+		afterCommit(() -> activeLoans -= count);
+	}
+
+	public synchronized long getBooks() {
+		return books;
+	}
+
+	public synchronized long getLoans() {
+		return loans;
+	}
+
+	public synchronized long getActiveLoans() {
+		return activeLoans;
+	}
+
+	public synchronized long getAuthors() {
+		return booksByAuthor.size();
+	}
+
+	public synchronized long getBooksOf(String author) {
+		return booksByAuthor.get(author);
+	}
+
+	public synchronized long getLoansOf(Long bookId) {
+		return loansByBook.get(bookId);
+	}
+
+	public synchronized List<Map.Entry<String, Long>> topAuthors(int k) {
+		return booksByAuthor.top(k);
+	}
+
+	public synchronized List<Map.Entry<Long, Long>> topBooks(int k) {
+		return loansByBook.top(k);
+	}
+
+	private void afterCommit(Runnable change) {
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply(change);
+				}
+			});
+		} else {
+			apply(change);
+		}
+	}
+
+	private synchronized void apply(Runnable change) {
+		change.run();
+	}
+
+	/**
+	 * Counts by key together with the keys ordered by count, highest first.
+	 */
+	private static final class Ranking<K extends Comparable<K>> {
+
+		private final Map<K, Long> counts = new HashMap<>();
+		private final NavigableSet<Map.Entry<K, Long>> ranked = new TreeSet<>(
+				Comparator.<Map.Entry<K, Long>, Long>comparing(Map.Entry::getValue).reversed()
+					.thenComparing(Map.Entry::getKey));
+
+		void add(K key, long delta) {
+			if(key == null) {
+				return;
+			}
+			Long current = counts.get(key);
+			set(key, (current == null ? 0 : current) + delta);
+		}
+
+		long get(K key) {
+			return key == null ? 0 : counts.getOrDefault(key, 0l);
+		}
+
+		int size() {
+			return counts.size();
+		}
+
+		List<Map.Entry<K, Long>> top(int k) {
+			List<Map.Entry<K, Long>> top = new ArrayList<>(Math.min(k, ranked.size()));
+			for(Map.Entry<K, Long> entry : ranked) {
+				if(top.size() == k) {
+					break;
+				}
+				top.add(entry);
+			}
+			return top;
+		}
+
+		/**
+		 * Replaces every count, returning how many keys had a different one.
+		 */
+		long replace(Map<K, Long> fresh) {
+			long corrected = fresh.entrySet().stream().filter(entry -> !entry.getValue().equals(counts.get(entry.getKey()))).count()
+					+ counts.keySet().stream().filter(key -> !fresh.containsKey(key)).count();
+			counts.clear();
+			ranked.clear();
+			fresh.forEach(this::set);
+			return corrected;
+		}
+
+		private void set(K key, long count) {
+			Long current = counts.remove(key);
+			if(current != null) {
+				ranked.remove(Map.entry(key, current));
+			}
+			if(count > 0) {
+				counts.put(key, count);
+				ranked.add(Map.entry(key, count));
+			}
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.phroque.livrosapi.services;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phroque.livrosapi.exception.Constraints;
+import com.phroque.livrosapi.model.entity.CustomerLoanStats;
+import com.phroque.livrosapi.model.repository.CustomerLoanStatsRepository;
+
+/**
+ * Keeps the loan counters of each customer. The updates are increments in
+ * the caller's transaction, applied in customer order so concurrent
+ * transactions lock the rows in the same order. A missing row is created
+ * in its own transaction first, so two first loans of a customer do not
+ * fail each other. Callers create the rows with {@link #prepare} before
+ * opening the loan transaction, so a loan never holds a connection while
+ * waiting for a second one from the pool.
+ */
+@Component
+public class CustomerLoanCounters {
+
+	private final CustomerLoanStatsRepository repository;
+	private final TransactionTemplate newTransaction;
+
+	public CustomerLoanCounters(CustomerLoanStatsRepository repository, PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.newTransaction = new TransactionTemplate(transactionManager);
+		this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Creates the missing counter rows of the customers. Must run outside
+	 * the transaction that creates the loans.
+	 */
+	public void prepare(Collection<String> customers) {
+		new TreeSet<>(customers.stream().filter(Objects::nonNull).collect(Collectors.toSet())).forEach(customer -> {
+			if(!repository.existsById(customer)) {
+				create(customer);
+			}
+		});
+	}
+
+	public void loaned(String customer) {
+		if(customer != null) {
+			loaned(Map.of(customer, 1l));
+		}
+	}
+
+	/**
+	 * Counts the loans taken, by customer. Must run in the transaction that
+	 * creates them.
+	 */
+	public void loaned(Map<String, Long> loansByCustomer) {
+		sorted(loansByCustomer).forEach((customer, loans) -> {
+			if(repository.addLoans(customer, loans) == 0) {
+				create(customer);
+				repository.addLoans(customer, loans);
+			}
+		});
+	}
+
+	/**
+	 * Counts the loans returned, by customer. Must run in the transaction
+	 * that returns them.
+	 */
+	public void returned(Map<String, Long> returnsByCustomer) {
+		sorted(returnsByCustomer).forEach(repository::addReturns);
+	}
+
+	public Optional<CustomerLoanStats> get(String customer) {
+		return repository.findById(customer);
+	}
+
+	private static Map<String, Long> sorted(Map<String, Long> counts) {
+		Map<String, Long> sorted = new TreeMap<>();
+		counts.forEach((customer, count) -> {
+			if(customer != null && count > 0) {
+				sorted.put(customer, count);
+			}
+		});
+		return sorted;
+	}
+
+	private void create(String customer) {
+		try {
+			newTransaction.executeWithoutResult(status -> {
+				if(!repository.existsById(customer)) {
+					repository.saveAndFlush(CustomerLoanStats.builder().customer(customer).build());
+				}
+			});
+		} catch (DataIntegrityViolationException e) {
+			if(!Constraints.isDuplicateKey(e)) {
+				throw e;
+			}
+			// created by a concurrent first loan
+		}
+	}
+}
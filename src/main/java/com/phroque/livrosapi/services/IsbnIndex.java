@@ -0,0 +1,205 @@
+package com.phroque.livrosapi.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counting Bloom filter over the ISBNs stored in the book table.
+ * A negative answer means the ISBN is definitely not registered, so the
+ * duplicate check query can be skipped. Until the filter is loaded from the
+ * table every ISBN is reported as a possible duplicate.
+ */
+@Slf4j
+@Component
+public class IsbnIndex implements MeterBinder {
+
+	private static final int COUNTERS_PER_SLOT = 8;
+	private static final int MAX_COUNT = 0xF;
+
+	private final BookRepository repository;
+	private final AtomicIntegerArray slots;
+	private final int counters;
+	private final int hashes;
+	private volatile boolean ready;
+
+	private final LongAdder definitelyNew = new LongAdder();
+	private final LongAdder possibleDuplicates = new LongAdder();
+	private final LongAdder falsePositives = new LongAdder();
+	private final LongAdder entries = new LongAdder();
+
+	public IsbnIndex(BookRepository repository,
+			@Value("${livros.isbn-index.expected-insertions:1000000}") int expectedInsertions,
+			@Value("${livros.isbn-index.false-positive-rate:0.01}") double falsePositiveRate) {
+		if(expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("Invalid isbn index sizing.");
+		}
+		this.repository = repository;
+		double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+		this.counters = (int) Math.max(COUNTERS_PER_SLOT, Math.min(Integer.MAX_VALUE - COUNTERS_PER_SLOT, Math.ceil(bits)));
+		this.hashes = (int) Math.max(1, Math.round(bits / expectedInsertions * Math.log(2)));
+		this.slots = new AtomicIntegerArray((counters + COUNTERS_PER_SLOT - 1) / COUNTERS_PER_SLOT);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void load() {
+		try (Stream<String> isbns = repository.streamAllIsbns()) {
+			isbns.forEach(this::add);
+		}
+		this.ready = true;
+		log.info("Isbn index loaded with {} entries ({} counters, {} hashes).", entries.sum(), counters, hashes);
+	}
+
+	public boolean mightContain(String isbn) {
+		if(!ready || isbn == null) {
+			return true;
+		}
+		long hash = hash(isbn);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for(int i = 0; i < hashes; i++) {
+			if(counter(index(h1, h2, i)) == 0) {
+				definitelyNew.increment();
+				return false;
+			}
+		}
+		possibleDuplicates.increment();
+		return true;
+	}
+
+	public void recordFalsePositive() {
+		if(ready) {
+			falsePositives.increment();
+		}
+	}
+
+	public void add(String isbn) {
+		if(isbn == null) {
+			return;
+		}
+		long hash = hash(isbn);
+		for(int i = 0; i < hashes; i++) {
+			update(index((int) hash, (int) (hash >>> 32), i), 1);
+		}
+		entries.increment();
+	}
+
+	public void addIfAbsent(String isbn) {
+		if(isbn == null) {
+			return;
+		}
+		long hash = hash(isbn);
+		for(int i = 0; i < hashes; i++) {
+			if(counter(index((int) hash, (int) (hash >>> 32), i)) == 0) {
+				add(isbn);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Only for an isbn whose row was actually deleted: the counters of an
+	 * isbn that was never added are shared with other isbns, and
+	 * decrementing them turns those into false negatives.
+	 */
+	public void remove(String isbn) {
+		if(isbn == null) {
+			return;
+		}
+		long hash = hash(isbn);
+		for(int i = 0; i < hashes; i++) {
+			update(index((int) hash, (int) (hash >>> 32), i), -1);
+		}
+		entries.decrement();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("livros.isbn.index.lookups", this, IsbnIndex::getDefinitelyNew)
+				.tag("result", "new")
+				.register(registry);
+		FunctionCounter.builder("livros.isbn.index.lookups", this, IsbnIndex::getPossibleDuplicates)
+				.tag("result", "possible-duplicate")
+				.register(registry);
+		FunctionCounter.builder("livros.isbn.index.false.positives", this, IsbnIndex::getFalsePositives)
+				.register(registry);
+		Gauge.builder("livros.isbn.index.entries", this, IsbnIndex::getEntries)
+				.register(registry);
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public long getDefinitelyNew() {
+		return definitelyNew.sum();
+	}
+
+	public long getPossibleDuplicates() {
+		return possibleDuplicates.sum();
+	}
+
+	public long getFalsePositives() {
+		return falsePositives.sum();
+	}
+
+	public long getEntries() {
+		return entries.sum();
+	}
+
+	private int index(int h1, int h2, int i) {
+		int combined = h1 + i * h2;
+		return (combined & Integer.MAX_VALUE) % counters;
+	}
+
+	private int counter(int index) {
+		int shift = (index % COUNTERS_PER_SLOT) * 4;
+		return (slots.get(index / COUNTERS_PER_SLOT) >>> shift) & MAX_COUNT;
+	}
+
+	private void update(int index, int delta) {
+		int slot = index / COUNTERS_PER_SLOT;
+		int shift = (index % COUNTERS_PER_SLOT) * 4;
+		while(true) {
+			int current = slots.get(slot);
+			int count = (current >>> shift) & MAX_COUNT;
+			// saturated counters are never decremented, zero counters never go negative
+			if(count == MAX_COUNT || (delta < 0 && count == 0)) {
+				return;
+			}
+			int next = (current & ~(MAX_COUNT << shift)) | ((count + delta) << shift);
+			if(slots.compareAndSet(slot, current, next)) {
+				return;
+			}
+		}
+	}
+
+	private static long hash(String isbn) {
+		long hash = 0xcbf29ce484222325L;
+		for(byte b : isbn.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
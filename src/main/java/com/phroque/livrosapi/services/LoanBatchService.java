@@ -0,0 +1,13 @@
+package com.phroque.livrosapi.services;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.phroque.livrosapi.dto.LoanBatchResultDTO;
+import com.phroque.livrosapi.dto.LoanDTO;
+
+public interface LoanBatchService {
+
+	LoanBatchResultDTO createLoans(List<LoanDTO> loans, LocalDate loanDate);
+
+}
@@ -0,0 +1,144 @@
+package com.phroque.livrosapi.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phroque.livrosapi.dto.LoanBatchItemDTO;
+import com.phroque.livrosapi.dto.LoanBatchResultDTO;
+import com.phroque.livrosapi.dto.LoanDTO;
+import com.phroque.livrosapi.exception.Constraints;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.BookIdentity;
+import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+
+/**
+ * Creates a basket of loans with one query to resolve the ISBNs, one to
+ * check which books are loaned and one batched insert, reporting the
+ * outcome of every item in the order it was sent.
+ */
+@Service
+public class LoanBatchServiceImpl implements LoanBatchService {
+
+	private final LoanRepository loanRepository;
+	private final BookRepository bookRepository;
+	private final CustomerLoanCounters counters;
+	private final CatalogStats stats;
+	private final TransactionTemplate transactionTemplate;
+
+	public LoanBatchServiceImpl(LoanRepository loanRepository, BookRepository bookRepository, CustomerLoanCounters counters, 
+			CatalogStats stats, PlatformTransactionManager transactionManager) {
+		this.loanRepository = loanRepository;
+		this.bookRepository = bookRepository;
+		this.counters = counters;
+		this.stats = stats;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	public LoanBatchResultDTO createLoans(List<LoanDTO> loans, LocalDate loanDate) {
+		LoanBatchResultDTO result = new LoanBatchResultDTO();
+		Set<String> isbns = loans.stream().map(LoanDTO::getIsbn).filter(Objects::nonNull).collect(Collectors.toSet());
+		Map<String, Long> bookIds = new HashMap<>();
+		if(!isbns.isEmpty()) {
+			bookRepository.findIdentities(isbns).forEach(book -> bookIds.put(book.getIsbn(), book.getId()));
+		}
+		Set<Long> loaned = bookIds.isEmpty() ? new HashSet<>() : new HashSet<>(loanRepository.findActiveBookIds(bookIds.values()));
+
+		List<PendingLoan> accepted = new ArrayList<>();
+		for(LoanDTO dto : loans) {
+			LoanBatchItemDTO item = LoanBatchItemDTO.builder().isbn(dto.getIsbn()).build();
+			result.getItems().add(item);
+			Long bookId = dto.getIsbn() == null ? null : bookIds.get(dto.getIsbn());
+			if(bookId == null) {
+				item.setError("Book not found for passed isbn");
+			} else if(!loaned.add(bookId)) {
+				// loaned before, or repeated in the basket
+				item.setError("Book already loaned");
+			} else {
+				accepted.add(new PendingLoan(item, dto.getCustomer(), bookId));
+			}
+		}
+
+		if(!accepted.isEmpty()) {
+			counters.prepare(accepted.stream().map(pending -> pending.customer).collect(Collectors.toList()));
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					List<Loan> entities = accepted.stream().map(pending -> pending.toLoan(loanDate)).collect(Collectors.toList());
+					loanRepository.saveAll(entities);
+					loanRepository.flush();
+					counters.loaned(entities.stream()
+							.filter(loan -> loan.getCustomer() != null)
+							.collect(Collectors.groupingBy(Loan::getCustomer, Collectors.counting())));
+					stats.loaned(accepted.stream().collect(Collectors.groupingBy(pending -> pending.bookId, Collectors.counting())));
+					for(int i = 0; i < entities.size(); i++) {
+						accepted.get(i).item.setLoanId(entities.get(i).getId());
+					}
+				});
+			} catch (DataIntegrityViolationException e) {
+				// a concurrent loan took one of the books, or one item is invalid: retry item by item
+				accepted.forEach(pending -> insertOne(pending, loanDate));
+			}
+		}
+		result.getItems().forEach(item -> {
+			if(item.getError() == null) {
+				result.setCreated(result.getCreated() + 1);
+			} else {
+				result.setRejected(result.getRejected() + 1);
+			}
+		});
+		return result;
+	}
+
+	private void insertOne(PendingLoan pending, LocalDate loanDate) {
+		pending.item.setLoanId(null);
+		try {
+			Loan loan = transactionTemplate.execute(status -> {
+				Loan savedLoan = loanRepository.saveAndFlush(pending.toLoan(loanDate));
+				counters.loaned(savedLoan.getCustomer());
+				stats.loaned(pending.bookId);
+				return savedLoan;
+			});
+			pending.item.setLoanId(loan.getId());
+		} catch (DataIntegrityViolationException e) {
+			// any other violation, such as a book deleted since it was found, fails this item only
+			pending.item.setError(Constraints.isViolated(e, LoanServiceImpl.ACTIVE_BOOK_CONSTRAINT) 
+					? "Book already loaned" : "Loan rejected by the database");
+		}
+	}
+
+	private class PendingLoan {
+		private final LoanBatchItemDTO item;
+		private final String customer;
+		private final Long bookId;
+
+		private PendingLoan(LoanBatchItemDTO item, String customer, Long bookId) {
+			this.item = item;
+			this.customer = customer;
+			this.bookId = bookId;
+		}
+
+		// must run inside the transaction that saves the loan, for the book reference
+		private Loan toLoan(LocalDate loanDate) {
+			return Loan.builder()
+					.customer(customer)
+					.book(bookRepository.getReferenceById(bookId))
+					.loanDate(loanDate)
+					.returned(false)
+					.activeBookId(bookId)
+					.build();
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.phroque.livrosapi.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.model.repository.CustomerLoan;
+
+/**
+ * Opaque continuation token for the newest-first history of a customer:
+ * the (loan date, id) of the last loan already returned.
+ */
+public final class LoanCursor {
+
+	private static final LocalDate FIRST_DATE = LocalDate.of(9999, 12, 31);
+	private static final String SEPARATOR = ":";
+
+	private final LocalDate lastLoanDate;
+	private final Long lastLoanId;
+
+	private LoanCursor(LocalDate lastLoanDate, Long lastLoanId) {
+		this.lastLoanDate = lastLoanDate;
+		this.lastLoanId = lastLoanId;
+	}
+
+	public static LoanCursor first() {
+		return new LoanCursor(FIRST_DATE, Long.MAX_VALUE);
+	}
+
+	public static LoanCursor decode(String token) {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = decoded.split(SEPARATOR, 2);
+			if(parts.length != 2) {
+				throw new BusinessException("Invalid cursor.");
+			}
+			return new LoanCursor(LocalDate.parse(parts[0]), Long.valueOf(parts[1]));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new BusinessException("Invalid cursor.");
+		}
+	}
+
+	public String encode() {
+		String raw = lastLoanDate + SEPARATOR + lastLoanId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public LoanCursor next(CustomerLoan last) {
+		return new LoanCursor(last.getLoanDate(), last.getId());
+	}
+
+	public LocalDate getLastLoanDate() {
+		return lastLoanDate;
+	}
+
+	public Long getLastLoanId() {
+		return lastLoanId;
+	}
+}
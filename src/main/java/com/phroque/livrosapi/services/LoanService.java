@@ -1,8 +1,21 @@
 package com.phroque.livrosapi.services;
 
+import java.util.Collection;
+
+import org.springframework.data.domain.Slice;
+
+import com.phroque.livrosapi.dto.CustomerLoanStatsDTO;
+import com.phroque.livrosapi.dto.LoanReturnResultDTO;
 import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.CustomerLoan;
 
 public interface LoanService {
 
 	Loan save(Loan loan);
+
+	LoanReturnResultDTO returnLoans(Collection<Long> ids);
+
+	Slice<CustomerLoan> findByCustomer(String customer, boolean activeOnly, LoanCursor cursor, int size);
+
+	CustomerLoanStatsDTO getCustomerStats(String customer);
 }
@@ -1,16 +1,135 @@
 package com.phroque.livrosapi.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.phroque.livrosapi.dto.CustomerLoanStatsDTO;
+import com.phroque.livrosapi.dto.LoanReturnResultDTO;
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.exception.Constraints;
 import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.CustomerLoan;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+import com.phroque.livrosapi.model.repository.LoanReturnState;
+
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed(value = "livros.service", histogram = true)
 public class LoanServiceImpl implements LoanService {
+	
+	static final String ACTIVE_BOOK_CONSTRAINT = "uk_loan_active_book";
+	static final int RETURN_CHUNK_SIZE = 1000;
+	
+	private LoanRepository repository;
+	private CustomerLoanCounters counters;
+	private CatalogStats stats;
+	private TransactionTemplate transactionTemplate;
+	
+	public LoanServiceImpl(LoanRepository repository, CustomerLoanCounters counters, CatalogStats stats,
+			PlatformTransactionManager transactionManager) {
+		this.repository = repository;
+		this.counters = counters;
+		this.stats = stats;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
 
 	@Override
 	public Loan save(Loan loan) {
-		// TODO Auto-generated method stub
-		return null;
+		if(loan.getBook() == null || loan.getBook().getId() == null) {
+			throw new IllegalArgumentException("Loan book cant be null.");
+		}
+		loan.setReturned(false);
+		loan.setActiveBookId(loan.getBook().getId());
+		counters.prepare(Collections.singleton(loan.getCustomer()));
+		try {
+			return transactionTemplate.execute(status -> {
+				Loan savedLoan = repository.saveAndFlush(loan);
+				counters.loaned(savedLoan.getCustomer());
+				stats.loaned(savedLoan.getBook().getId());
+				return savedLoan;
+			});
+		} catch (DataIntegrityViolationException e) {
+			if(Constraints.isViolated(e, ACTIVE_BOOK_CONSTRAINT)) {
+				throw new BusinessException("Book already loaned");
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the open loans among the ids with one update per chunk, and
+	 * reports the ids that were already returned or do not exist.
+	 */
+	@Override
+	@Transactional
+	public LoanReturnResultDTO returnLoans(Collection<Long> ids) {
+		List<Long> sortedIds = ids.stream().filter(Objects::nonNull).distinct().sorted().collect(Collectors.toList());
+		LoanReturnResultDTO result = new LoanReturnResultDTO();
+		for(int from = 0; from < sortedIds.size(); from += RETURN_CHUNK_SIZE) {
+			List<Long> chunk = sortedIds.subList(from, Math.min(from + RETURN_CHUNK_SIZE, sortedIds.size()));
+			Map<Long, LoanReturnState> states = new HashMap<>();
+			repository.findReturnStates(chunk).forEach(state -> states.put(state.getId(), state));
+			List<Long> open = new ArrayList<>(chunk.size());
+			Map<String, Long> returnsByCustomer = new HashMap<>();
+			for(Long id : chunk) {
+				LoanReturnState state = states.get(id);
+				if(state == null) {
+					result.getNotFound().add(id);
+				} else if(Boolean.TRUE.equals(state.getReturned())) {
+					result.getAlreadyReturned().add(id);
+				} else {
+					open.add(id);
+					if(state.getCustomer() != null) {
+						returnsByCustomer.merge(state.getCustomer(), 1l, Long::sum);
+					}
+				}
+			}
+			if(!open.isEmpty()) {
+				repository.markReturned(open);
+				counters.returned(returnsByCustomer);
+				stats.returned(open.size());
+				result.getReturned().addAll(open);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<CustomerLoan> findByCustomer(String customer, boolean activeOnly, LoanCursor cursor, int size) {
+		List<CustomerLoan> loans = repository.findByCustomer(customer, activeOnly, 
+				cursor.getLastLoanDate(), cursor.getLastLoanId(), PageRequest.of(0, size + 1));
+		boolean hasNext = loans.size() > size;
+		List<CustomerLoan> content = hasNext ? loans.subList(0, size) : loans;
+		return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CustomerLoanStatsDTO getCustomerStats(String customer) {
+		return counters.get(customer)
+				.map(stats -> CustomerLoanStatsDTO.builder()
+						.customer(customer)
+						.totalLoans(stats.getTotalLoans())
+						.outstandingLoans(stats.getOutstandingLoans())
+						.build())
+				.orElseGet(() -> CustomerLoanStatsDTO.builder().customer(customer).build());
 	}
 
 }
@@ -0,0 +1,136 @@
+package com.phroque.livrosapi.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phroque.livrosapi.exception.Constraints;
+import com.phroque.livrosapi.model.entity.OverdueLoan;
+import com.phroque.livrosapi.model.entity.ScanCheckpoint;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+import com.phroque.livrosapi.model.repository.OverdueLoanCandidate;
+import com.phroque.livrosapi.model.repository.OverdueLoanRepository;
+import com.phroque.livrosapi.model.repository.ScanCheckpointRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Records a late loan for every open loan past its due date.
+ * <p>
+ * Loans are read in chunks by keyset over (loanDate, id), with plain reads
+ * that take no locks on the loan table. Each chunk commits its late records
+ * together with the checkpoint, so memory stays bounded by the chunk size
+ * and a restart resumes after the last chunk. The checkpoint also carries
+ * over between runs: loans are only overdue in loan date order, so every
+ * run starts where the previous one stopped. Each chunk locks the
+ * checkpoint row, so when several instances run the scan they take turns
+ * chunk by chunk instead of recording the same loans twice.
+ */
+@Slf4j
+@Component
+public class OverdueLoanScanner {
+
+	static final String CHECKPOINT = "overdue-loans";
+
+	private final LoanRepository loanRepository;
+	private final OverdueLoanRepository overdueLoanRepository;
+	private final ScanCheckpointRepository checkpointRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final TransactionTemplate newTransaction;
+	private final EntityManager entityManager;
+	private final int loanDays;
+	private final int chunkSize;
+
+	public OverdueLoanScanner(LoanRepository loanRepository, OverdueLoanRepository overdueLoanRepository, 
+			ScanCheckpointRepository checkpointRepository, PlatformTransactionManager transactionManager, EntityManager entityManager,
+			@Value("${livros.loan.days:14}") int loanDays,
+			@Value("${livros.overdue-scan.chunk-size:500}") int chunkSize) {
+		this.loanRepository = loanRepository;
+		this.overdueLoanRepository = overdueLoanRepository;
+		this.checkpointRepository = checkpointRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.newTransaction = new TransactionTemplate(transactionManager);
+		this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.entityManager = entityManager;
+		this.loanDays = loanDays;
+		this.chunkSize = chunkSize;
+	}
+
+	@Scheduled(cron = "${livros.overdue-scan.cron:0 0 2 * * *}")
+	public void scan() {
+		int found = scan(LocalDate.now());
+		log.info("Overdue loan scan recorded {} late loans.", found);
+	}
+
+	/**
+	 * Scans the loans overdue at the given day and returns how many late
+	 * loans were recorded.
+	 */
+	public int scan(LocalDate today) {
+		createCheckpoint();
+		LocalDate cutoff = today.minusDays(loanDays);
+		int total = 0;
+		int processed;
+		do {
+			processed = transactionTemplate.execute(status -> scanChunk(cutoff, today));
+			total += processed;
+		} while(processed == chunkSize);
+		return total;
+	}
+
+	/**
+	 * Creates the checkpoint of the first run in its own transaction, so
+	 * there is always a row for the chunks to lock.
+	 */
+	private void createCheckpoint() {
+		if(checkpointRepository.existsById(CHECKPOINT)) {
+			return;
+		}
+		try {
+			newTransaction.executeWithoutResult(status -> checkpointRepository.saveAndFlush(
+					ScanCheckpoint.builder().name(CHECKPOINT).lastLoanDate(LocalDate.EPOCH).lastLoanId(0l).build()));
+		} catch (DataIntegrityViolationException e) {
+			if(!Constraints.isDuplicateKey(e)) {
+				throw e;
+			}
+			// created by a scan on another instance
+		}
+	}
+
+	private int scanChunk(LocalDate cutoff, LocalDate today) {
+		ScanCheckpoint checkpoint = checkpointRepository.findForUpdate(CHECKPOINT).orElseThrow();
+		List<OverdueLoanCandidate> chunk = loanRepository.findOverdue(
+				cutoff, checkpoint.getLastLoanDate(), checkpoint.getLastLoanId(), PageRequest.of(0, chunkSize));
+		if(chunk.isEmpty()) {
+			return 0;
+		}
+		overdueLoanRepository.saveAll(chunk.stream()
+				.map(loan -> OverdueLoan.builder()
+						.loanId(loan.getId())
+						.bookId(loan.getBookId())
+						.customer(loan.getCustomer())
+						.loanDate(loan.getLoanDate())
+						.dueDate(loan.getLoanDate().plusDays(loanDays))
+						.detectedAt(today)
+						.build())
+				.collect(Collectors.toList()));
+		OverdueLoanCandidate last = chunk.get(chunk.size() - 1);
+		checkpoint.setLastLoanDate(last.getLoanDate());
+		checkpoint.setLastLoanId(last.getId());
+		checkpointRepository.save(checkpoint);
+		checkpointRepository.flush();
+		entityManager.clear();
+		return chunk.size();
+	}
+}
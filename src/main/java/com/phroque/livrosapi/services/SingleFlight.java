@@ -0,0 +1,83 @@
+package com.phroque.livrosapi.services;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs one call per key at a time: callers that arrive while a call for
+ * their key is in flight wait for it and share its result, or its
+ * exception. A waiter gives up after {@code maxWait} and makes its own call,
+ * so a slow call does not hold up everyone behind it for longer than that.
+ */
+final class SingleFlight<K, V> {
+
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final long maxWaitNanos;
+	private final LongAdder saved = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+
+	SingleFlight(Duration maxWait) {
+		this.maxWaitNanos = maxWait.toNanos();
+	}
+
+	V execute(K key, Supplier<V> call) {
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+		if(leader == null) {
+			try {
+				V value = call.get();
+				flight.complete(value);
+				return value;
+			} catch (RuntimeException | Error e) {
+				flight.completeExceptionally(e);
+				throw e;
+			} finally {
+				inFlight.remove(key, flight);
+			}
+		}
+		try {
+			V value = leader.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+			saved.increment();
+			return value;
+		} catch (TimeoutException e) {
+			timedOut.increment();
+			return call.get();
+		} catch (ExecutionException e) {
+			saved.increment();
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a shared read.", e);
+		}
+	}
+
+	/**
+	 * Lets the next callers start a new call instead of joining the ones in
+	 * flight. The calls in flight still complete for their waiters.
+	 */
+	void clear() {
+		inFlight.clear();
+	}
+
+	long getSaved() {
+		return saved.sum();
+	}
+
+	long getTimedOut() {
+		return timedOut.sum();
+	}
+}
@@ -0,0 +1,77 @@
+package com.phroque.livrosreactive;
+
+
+import javax.validation.Valid;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.dto.BookPage;
+import com.phroque.livrosapi.model.entity.Book;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/books")
+public class ReactiveBookController {
+
+	private final ReactiveBookService service;
+	private final BookMapper mapper;
+
+	public ReactiveBookController(ReactiveBookService service, BookMapper mapper) {
+		this.service = service;
+		this.mapper = mapper;
+	}
+
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<BookDTO> create(@RequestBody @Valid BookDTO dto) {
+		Book entity = mapper.toEntity(dto);
+		entity.setId(null);
+		return service.save(entity).map(mapper::toDto);
+	}
+
+	@GetMapping("{id}")
+	public Mono<BookDTO> get(@PathVariable Long id) {
+		return service.getById(id)
+				.map(mapper::toDto)
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)));
+	}
+
+	@DeleteMapping("{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public Mono<Void> delete(@PathVariable Long id) {
+		return service.getById(id)
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+				.flatMap(service::delete);
+	}
+
+	@PutMapping("{id}")
+	public Mono<BookDTO> update(@PathVariable Long id, @RequestBody BookDTO dto) {
+		return service.getById(id)
+				.switchIfEmpty(Mono.error(() -> new ResponseStatusException(HttpStatus.NOT_FOUND)))
+				.flatMap(book -> {
+					book.setAuthor(dto.getAuthor());
+					book.setTitle(dto.getTitle());
+					return service.update(book);
+				})
+				.map(mapper::toDto);
+	}
+
+	@GetMapping
+	public Mono<BookPage> find(BookDTO dto, Pageable pageRequest) {
+		return service.find(mapper.toEntity(dto), pageRequest).map(BookPage::of);
+	}
+}
@@ -0,0 +1,186 @@
+package com.phroque.livrosreactive;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.model.entity.Book;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the book table, written against the same schema
+ * the JPA mapping of {@link Book} generates. Ids come from the shared
+ * {@code book_seq} sequence with Hibernate's pooled optimizer: each value
+ * {@code hi} drawn from it reserves the block {@code hi - 49 .. hi}.
+ */
+@Repository
+public class ReactiveBookRepository {
+
+	private static final String COLUMNS = "id, title, author, isbn, version";
+	private static final Set<String> SORTABLE = Set.of("id", "title", "author", "isbn");
+	/** The {@code allocationSize} of the book id generator and the increment of {@code book_seq}. */
+	static final int ID_BLOCK_SIZE = 50;
+
+	private final DatabaseClient client;
+	private long nextId;
+	private long maxId = -1;
+
+	public ReactiveBookRepository(DatabaseClient client) {
+		this.client = client;
+	}
+
+	public Mono<Book> findById(Long id) {
+		return client.sql("select " + COLUMNS + " from book where id = :id")
+				.bind("id", id)
+				.map(ReactiveBookRepository::toBook)
+				.one();
+	}
+
+	public Mono<Boolean> existsByIsbn(String isbn) {
+		return client.sql("select count(*) from book where isbn = :isbn")
+				.bind("isbn", isbn)
+				.map(row -> row.get(0, Long.class) > 0)
+				.one();
+	}
+
+	public Mono<Book> insert(Book book) {
+		return nextId().flatMap(id -> {
+			Book inserted = book.toBuilder().id(id).version(0l).build();
+			GenericExecuteSpec spec = client.sql("insert into book (" + COLUMNS + ") values (:id, :title, :author, :isbn, :version)")
+					.bind("id", id)
+					.bind("version", 0l);
+			return bindFields(spec, inserted).fetch().rowsUpdated().thenReturn(inserted);
+		});
+	}
+
+	/**
+	 * Next id of the current block, drawing a new block from the sequence
+	 * when it is used up. Concurrent draws each get a block of their own; the
+	 * rest of a block replaced before it is used up is skipped.
+	 */
+	private Mono<Long> nextId() {
+		return Mono.defer(() -> {
+			synchronized(this) {
+				if(nextId <= maxId) {
+					return Mono.just(nextId++);
+				}
+			}
+			return client.sql("select next value for book_seq")
+					.map(row -> row.get(0, Long.class))
+					.one()
+					.map(this::allocate);
+		});
+	}
+
+	private synchronized long allocate(long hi) {
+		nextId = Math.max(1, hi - ID_BLOCK_SIZE + 1);
+		maxId = hi;
+		return nextId++;
+	}
+
+	public Mono<Integer> update(Book book) {
+		GenericExecuteSpec spec = client.sql("update book set title = :title, author = :author, isbn = :isbn, version = version + 1 where id = :id")
+				.bind("id", book.getId());
+		return bindFields(spec, book).fetch().rowsUpdated();
+	}
+
+	public Mono<Integer> deleteById(Long id) {
+		return client.sql("delete from book where id = :id")
+				.bind("id", id)
+				.fetch()
+				.rowsUpdated();
+	}
+
+	/**
+	 * Books matching the filter like the servlet search does: id by value,
+	 * title, author and isbn as case-insensitive "contains".
+	 */
+	public Flux<Book> find(Book filter, Pageable pageable) {
+		Map<String, Object> parameters = new LinkedHashMap<>();
+		StringBuilder sql = new StringBuilder("select " + COLUMNS + " from book").append(where(filter, parameters));
+		sql.append(orderBy(pageable.getSort()));
+		if(pageable.isPaged()) {
+			sql.append(" limit ").append(pageable.getPageSize()).append(" offset ").append(pageable.getOffset());
+		}
+		return bind(client.sql(sql.toString()), parameters).map(ReactiveBookRepository::toBook).all();
+	}
+
+	public Mono<Long> count(Book filter) {
+		Map<String, Object> parameters = new LinkedHashMap<>();
+		String sql = "select count(*) from book" + where(filter, parameters);
+		return bind(client.sql(sql), parameters).map(row -> row.get(0, Long.class)).one();
+	}
+
+	private static String where(Book filter, Map<String, Object> parameters) {
+		StringBuilder where = new StringBuilder();
+		if(filter.getId() != null) {
+			parameters.put("id", filter.getId());
+			where.append(" and id = :id");
+		}
+		contains(where, parameters, "title", filter.getTitle());
+		contains(where, parameters, "author", filter.getAuthor());
+		contains(where, parameters, "isbn", filter.getIsbn());
+		return where.length() == 0 ? "" : " where" + where.substring(" and".length());
+	}
+
+	private static void contains(StringBuilder where, Map<String, Object> parameters, String column, String value) {
+		if(value == null) {
+			return;
+		}
+		String escaped = value.toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+		parameters.put(column, "%" + escaped + "%");
+		where.append(" and lower(").append(column).append(") like :").append(column).append(" escape '\\'");
+	}
+
+	private static String orderBy(Sort sort) {
+		if(sort.isUnsorted()) {
+			return " order by id";
+		}
+		StringBuilder orderBy = new StringBuilder(" order by ");
+		for(Sort.Order order : sort) {
+			if(!SORTABLE.contains(order.getProperty())) {
+				throw new BusinessException("Invalid sort property.");
+			}
+			orderBy.append(order.getProperty()).append(order.isAscending() ? " asc, " : " desc, ");
+		}
+		return orderBy.append("id").toString();
+	}
+
+	private static GenericExecuteSpec bind(GenericExecuteSpec spec, Map<String, Object> parameters) {
+		for(Map.Entry<String, Object> parameter : parameters.entrySet()) {
+			spec = spec.bind(parameter.getKey(), parameter.getValue());
+		}
+		return spec;
+	}
+
+	private static GenericExecuteSpec bindFields(GenericExecuteSpec spec, Book book) {
+		spec = bindNullable(spec, "title", book.getTitle());
+		spec = bindNullable(spec, "author", book.getAuthor());
+		return bindNullable(spec, "isbn", book.getIsbn());
+	}
+
+	private static GenericExecuteSpec bindNullable(GenericExecuteSpec spec, String name, String value) {
+		return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+	}
+
+	private static Book toBook(Row row) {
+		return Book.builder()
+				.id(row.get("id", Long.class))
+				.title(row.get("title", String.class))
+				.author(row.get("author", String.class))
+				.isbn(row.get("isbn", String.class))
+				.version(row.get("version", Long.class))
+				.build();
+	}
+}
@@ -0,0 +1,22 @@
+package com.phroque.livrosreactive;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.phroque.livrosapi.model.entity.Book;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookService {
+
+	Mono<Book> save(Book book);
+
+	Mono<Book> getById(Long id);
+
+	Mono<Void> delete(Book book);
+
+	Mono<Book> update(Book book);
+
+	Mono<Page<Book>> find(Book filter, Pageable pageRequest);
+
+}
@@ -0,0 +1,64 @@
+package com.phroque.livrosreactive;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.exception.Constraints;
+import com.phroque.livrosapi.model.entity.Book;
+
+import reactor.core.publisher.Mono;
+
+@Service
+public class ReactiveBookServiceImpl implements ReactiveBookService {
+
+	static final String ISBN_CONSTRAINT = "uk_book_isbn";
+
+	private final ReactiveBookRepository repository;
+
+	public ReactiveBookServiceImpl(ReactiveBookRepository repository) {
+		this.repository = repository;
+	}
+
+	@Override
+	public Mono<Book> save(Book book) {
+		return repository.existsByIsbn(book.getIsbn())
+				.flatMap(exists -> exists 
+						? Mono.<Book>error(new BusinessException("Isbn já cadastrado.")) 
+						: repository.insert(book))
+				.onErrorMap(DataIntegrityViolationException.class, 
+						e -> Constraints.isViolated(e, ISBN_CONSTRAINT) ? new BusinessException("Isbn já cadastrado.") : e);
+	}
+
+	@Override
+	public Mono<Book> getById(Long id) {
+		return repository.findById(id);
+	}
+
+	@Override
+	public Mono<Void> delete(Book book) {
+		if(book == null || book.getId() == null) {
+			return Mono.error(new IllegalArgumentException("Book id cant be null."));
+		}
+		return repository.deleteById(book.getId()).then();
+	}
+
+	@Override
+	public Mono<Book> update(Book book) {
+		if(book == null || book.getId() == null) {
+			return Mono.error(new IllegalArgumentException("Book id cant be null."));
+		}
+		return repository.update(book).then(repository.findById(book.getId()));
+	}
+
+	@Override
+	public Mono<Page<Book>> find(Book filter, Pageable pageRequest) {
+		return repository.find(filter, pageRequest)
+				.collectList()
+				.zipWith(repository.count(filter))
+				.map(result -> new PageImpl<>(result.getT1(), pageRequest, result.getT2()));
+	}
+}
@@ -0,0 +1,36 @@
+package com.phroque.livrosreactive;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.phroque.livrosapi.exception.ApiErrors;
+import com.phroque.livrosapi.exception.BusinessException;
+
+/**
+ * Same error shape as the servlet application's advice.
+ */
+@RestControllerAdvice
+public class ReactiveControllerAdvice {
+
+	@ExceptionHandler(WebExchangeBindException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public ApiErrors handleValidationExceptions(WebExchangeBindException ex) {
+		return new ApiErrors(ex.getBindingResult());
+	}
+
+	@ExceptionHandler(BusinessException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public ApiErrors handleBusinessExceptions(BusinessException ex) {
+		return new ApiErrors(ex);
+	}
+
+	@ExceptionHandler(ResponseStatusException.class)
+	public ResponseEntity<ApiErrors> handleResponseStatusException(ResponseStatusException ex) {
+		return new ResponseEntity<>(new ApiErrors(ex), ex.getStatus());
+	}
+}
@@ -0,0 +1,66 @@
+package com.phroque.livrosreactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+import com.phroque.livrosapi.dto.BookMapper;
+
+/**
+ * Reactive variant of the book API: WebFlux on Netty over R2DBC, with the
+ * same contract as the servlet application. It is a separate application,
+ * configured by {@code reactive.properties}, without JPA and JDBC.
+ */
+@Configuration
+@EnableAutoConfiguration(exclude = {
+		DataSourceAutoConfiguration.class,
+		DataSourceTransactionManagerAutoConfiguration.class,
+		HibernateJpaAutoConfiguration.class,
+		JpaRepositoriesAutoConfiguration.class })
+@ComponentScan
+public class ReactiveLivrosApplication implements WebFluxConfigurer {
+
+	public static final String CONFIG_NAME = "reactive";
+
+	/**
+	 * Netty event loops rather than Tomcat, which is also on the classpath
+	 * for the servlet application and would otherwise be preferred.
+	 */
+	@Bean
+	public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+		return new NettyReactiveWebServerFactory();
+	}
+
+	@Bean
+	public BookMapper bookMapper() {
+		return new BookMapper();
+	}
+
+	@Override
+	public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+		configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver());
+		configurer.addCustomResolver(new ReactiveSortHandlerMethodArgumentResolver());
+	}
+
+	public static SpringApplicationBuilder builder() {
+		return new SpringApplicationBuilder(ReactiveLivrosApplication.class)
+				.web(WebApplicationType.REACTIVE)
+				.properties("spring.config.name=" + CONFIG_NAME);
+	}
+
+	public static void main(String[] args) {
+		builder().run(args);
+	}
+}
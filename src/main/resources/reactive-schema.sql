@@ -0,0 +1,15 @@
+-- same table the JPA mapping of Book generates for the servlet application
+create sequence if not exists book_seq start with 1 increment by 50;
+
+create table if not exists book (
+	id bigint not null,
+	title varchar(255),
+	author varchar(255),
+	isbn varchar(255),
+	version bigint,
+	primary key (id),
+	constraint uk_book_isbn unique (isbn)
+);
+
+create index if not exists idx_book_title_id on book (title, id);
+create index if not exists idx_book_author_id on book (author, id);
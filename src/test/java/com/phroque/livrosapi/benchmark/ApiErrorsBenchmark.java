@@ -0,0 +1,77 @@
+package com.phroque.livrosapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.exception.ApiErrors;
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.resources.ApplicationControllerAdvice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Error responses built by ApplicationControllerAdvice for validation,
+ * business and status exceptions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiErrorsBenchmark {
+
+	private ApplicationControllerAdvice advice;
+	private MethodArgumentNotValidException validationException;
+	private BusinessException businessException;
+	private ResponseStatusException statusException;
+
+	@Setup
+	public void setUp() throws Exception {
+		advice = new ApplicationControllerAdvice(new SimpleMeterRegistry());
+		BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new BookDTO(), "bookDTO");
+		bindingResult.rejectValue("title", "NotEmpty", "must not be empty");
+		bindingResult.rejectValue("author", "NotEmpty", "must not be empty");
+		bindingResult.rejectValue("isbn", "NotEmpty", "must not be empty");
+		MethodParameter parameter = new MethodParameter(ApiErrorsBenchmark.class.getDeclaredMethod("setUp"), -1);
+		validationException = new MethodArgumentNotValidException(parameter, bindingResult);
+		businessException = new BusinessException("Isbn já cadastrado.");
+		statusException = new ResponseStatusException(HttpStatus.BAD_REQUEST, "Book not found for passed isbn");
+	}
+
+	@Benchmark
+	public ApiErrors validationErrors() {
+		return advice.handleValidationExceptions(validationException);
+	}
+
+	@Benchmark
+	public ApiErrors businessErrors() {
+		return advice.handleBusinessExceptions(businessException);
+	}
+
+	@Benchmark
+	public Object statusErrors() {
+		return advice.handleResponseStatusException(statusException);
+	}
+
+	@Benchmark
+	public BusinessException businessExceptionCreation() {
+		return new BusinessException("Isbn já cadastrado.");
+	}
+}
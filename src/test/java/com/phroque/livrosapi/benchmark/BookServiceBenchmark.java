@@ -0,0 +1,103 @@
+package com.phroque.livrosapi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.phroque.livrosapi.LivrosApplication;
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.services.BookImportFormat;
+import com.phroque.livrosapi.services.BookImportService;
+import com.phroque.livrosapi.services.BookService;
+
+/**
+ * BookServiceImpl against the embedded H2 database of the application:
+ * search (query construction and execution) and save with its duplicate
+ * check, on a catalog seeded through the bulk import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookServiceBenchmark {
+
+	static final int CATALOG_SIZE = 20_000;
+
+	private ConfigurableApplicationContext context;
+	private BookService service;
+	private Pageable pageRequest;
+	private final AtomicLong isbns = new AtomicLong();
+
+	@Setup
+	public void setUp() throws Exception {
+		context = new SpringApplicationBuilder(LivrosApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("logging.level.root=WARN", "spring.main.banner-mode=off",
+						"spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_ON_EXIT=FALSE")
+				.run();
+		service = context.getBean(BookService.class);
+		StringBuilder catalog = new StringBuilder();
+		for(int i = 0; i < CATALOG_SIZE; i++) {
+			catalog.append(String.format("{\"title\":\"Titulo %d\",\"author\":\"Autor %d\",\"isbn\":\"seed-%d\"}%n", i, i % 500, i));
+		}
+		context.getBean(BookImportService.class).importBooks(
+				new ByteArrayInputStream(catalog.toString().getBytes(StandardCharsets.UTF_8)), BookImportFormat.NDJSON);
+		pageRequest = PageRequest.of(0, 20);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Page<Book> findAll() {
+		return service.find(new Book(), pageRequest);
+	}
+
+	@Benchmark
+	public Page<Book> findByTitle() {
+		return service.find(Book.builder().title("tulo 1234").build(), pageRequest);
+	}
+
+	@Benchmark
+	public Page<Book> findByAuthor() {
+		return service.find(Book.builder().author("autor 42").build(), pageRequest);
+	}
+
+	@Benchmark
+	public Book saveNewIsbn() {
+		return service.save(Book.builder().title("Novo").author("Autor").isbn("new-" + isbns.incrementAndGet()).build());
+	}
+
+	@Benchmark
+	public Object saveDuplicatedIsbn() {
+		try {
+			return service.save(Book.builder().title("Repetido").author("Autor").isbn("seed-1").build());
+		} catch (BusinessException e) {
+			return e;
+		}
+	}
+}
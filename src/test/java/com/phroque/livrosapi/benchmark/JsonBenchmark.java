@@ -0,0 +1,86 @@
+package com.phroque.livrosapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.dto.BookPage;
+import com.phroque.livrosapi.model.entity.Book;
+
+/**
+ * JSON serialization of a page of books as returned by GET /api/books,
+ * with an ObjectMapper configured the way Spring Boot configures it.
+ * serializeDtoPage maps the query result to a PageImpl of DTOs the way the
+ * controller used to; serializeBookPage streams it through BookPage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	@Param({ "20", "100" })
+	private int pageSize;
+
+	private ObjectMapper objectMapper;
+	private PageImpl<BookDTO> page;
+	private BookDTO book;
+	private BookMapper mapper;
+	private Page<Book> result;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+		List<BookDTO> content = LongStream.range(0, pageSize)
+				.mapToObj(id -> BookDTO.builder().id(id).title("Titulo " + id).author("Autor " + id).isbn("isbn-" + id).build())
+				.collect(Collectors.toList());
+		page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+		book = content.get(0);
+		mapper = new BookMapper();
+		result = new PageImpl<>(content.stream().map(mapper::toEntity).collect(Collectors.toList()),
+				PageRequest.of(0, pageSize), 10_000);
+	}
+
+	@Benchmark
+	public byte[] serializePage() throws Exception {
+		return objectMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] serializeBook() throws Exception {
+		return objectMapper.writeValueAsBytes(book);
+	}
+
+	@Benchmark
+	public byte[] serializeDtoPage() throws Exception {
+		List<BookDTO> content = result.getContent().stream().map(mapper::toDto).collect(Collectors.toList());
+		return objectMapper.writeValueAsBytes(new PageImpl<>(content, result.getPageable(), result.getTotalElements()));
+	}
+
+	@Benchmark
+	public byte[] serializeBookPage() throws Exception {
+		return objectMapper.writeValueAsBytes(BookPage.of(result));
+	}
+}
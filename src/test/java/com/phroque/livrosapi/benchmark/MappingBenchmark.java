@@ -0,0 +1,100 @@
+package com.phroque.livrosapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.BookMapper;
+import com.phroque.livrosapi.dto.LoanDTO;
+import com.phroque.livrosapi.dto.LoanMapper;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+
+/**
+ * Compares the hand written mappers with the reflective ModelMapper path
+ * they replaced, for a single book and for a page of 100 books.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+	private ModelMapper modelMapper;
+	private BookMapper bookMapper;
+	private LoanMapper loanMapper;
+	
+	private Book book;
+	private BookDTO dto;
+	private Loan loan;
+	private List<Book> page;
+
+	@Setup
+	public void setUp() {
+		modelMapper = new ModelMapper();
+		bookMapper = new BookMapper();
+		loanMapper = new LoanMapper();
+		book = Book.builder().id(1l).title("As aventuras").author("Fulano").isbn("123").build();
+		dto = BookDTO.builder().title("As aventuras").author("Fulano").isbn("123").build();
+		loan = Loan.builder().id(1l).customer("Fulano").book(book).build();
+		page = LongStream.range(0, 100)
+				.mapToObj(id -> Book.builder().id(id).title("Titulo " + id).author("Autor " + id).isbn("isbn-" + id).build())
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public BookDTO bookToDtoModelMapper() {
+		return modelMapper.map(book, BookDTO.class);
+	}
+
+	@Benchmark
+	public BookDTO bookToDtoMapper() {
+		return bookMapper.toDto(book);
+	}
+
+	@Benchmark
+	public Book dtoToBookModelMapper() {
+		return modelMapper.map(dto, Book.class);
+	}
+
+	@Benchmark
+	public Book dtoToBookMapper() {
+		return bookMapper.toEntity(dto);
+	}
+
+	@Benchmark
+	public LoanDTO loanToDtoModelMapper() {
+		return modelMapper.map(loan, LoanDTO.class);
+	}
+
+	@Benchmark
+	public LoanDTO loanToDtoMapper() {
+		return loanMapper.toDto(loan);
+	}
+
+	@Benchmark
+	public List<BookDTO> pageModelMapper() {
+		return page.stream().map(entity -> modelMapper.map(entity, BookDTO.class)).collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<BookDTO> pageMapper() {
+		return page.stream().map(bookMapper::toDto).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,101 @@
+package com.phroque.livrosapi.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.phroque.livrosapi.LivrosApplication;
+import com.phroque.livrosapi.config.VirtualThreadConfiguration;
+import com.phroque.livrosapi.services.BookImportFormat;
+import com.phroque.livrosapi.services.BookImportService;
+
+/**
+ * Load comparison of the thread-per-request model against the virtual
+ * thread mode: many concurrent clients searching the catalog over HTTP,
+ * with the Tomcat pool kept small so it saturates before the CPU does.
+ * Admission control is off, so the single benchmark host is not rate
+ * limited, and any non-2xx answer fails the run instead of counting as
+ * throughput.
+ * <p>
+ * The {@code virtualThreads=true} run needs the fork on a Java 21+ runtime,
+ * e.g. {@code -Djmh.args="-jvm /path/to/jdk-21/bin/java"}; on an older one
+ * its setup fails rather than measuring platform threads again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(256)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+	static final int CATALOG_SIZE = 20_000;
+
+	@Param({ "false", "true" })
+	private boolean virtualThreads;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private String baseUrl;
+
+	@Setup
+	public void setUp() throws Exception {
+		context = new SpringApplicationBuilder(LivrosApplication.class)
+				.properties("logging.level.root=WARN", "spring.main.banner-mode=off",
+						"spring.datasource.url=jdbc:h2:mem:threads;DB_CLOSE_ON_EXIT=FALSE")
+				// arguments, so they win over application.properties
+				.run("--server.port=0", "--server.tomcat.threads.max=50", "--livros.admission.enabled=false",
+						"--livros.virtual-threads.enabled=" + virtualThreads);
+		if(context.getBeanNamesForType(VirtualThreadConfiguration.class).length > 0 != virtualThreads) {
+			throw new IllegalStateException("Virtual thread mode not " + (virtualThreads ? "enabled" : "disabled") + ".");
+		}
+		StringBuilder catalog = new StringBuilder();
+		for(int i = 0; i < CATALOG_SIZE; i++) {
+			catalog.append(String.format("{\"title\":\"Titulo %d\",\"author\":\"Autor %d\",\"isbn\":\"seed-%d\"}%n", i, i % 500, i));
+		}
+		context.getBean(BookImportService.class).importBooks(
+				new ByteArrayInputStream(catalog.toString().getBytes(StandardCharsets.UTF_8)), BookImportFormat.NDJSON);
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		baseUrl = "http://localhost:" + port + "/api/books";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int searchByAuthor() throws Exception {
+		int author = ThreadLocalRandom.current().nextInt(500);
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?author=autor+" + author + "&size=20")).build();
+		int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+		if(status / 100 != 2) {
+			throw new IllegalStateException("Search answered " + status + ".");
+		}
+		return status;
+	}
+}
@@ -0,0 +1,78 @@
+package com.phroque.livrosapi.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.phroque.livrosapi.dto.BookDTO;
+
+/**
+ * Encoding and decoding a page of books as returned by GET /api/books in
+ * each wire format the API negotiates. The encoded size of the page is
+ * printed at setup for the size comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+	@Param({ "json", "cbor", "smile" })
+	private String format;
+
+	@Param({ "20", "100" })
+	private int pageSize;
+
+	private ObjectMapper objectMapper;
+	private PageImpl<BookDTO> page;
+	private byte[] encodedPage;
+
+	@Setup
+	public void setUp() throws Exception {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+		if("cbor".equals(format)) {
+			builder.factory(new CBORFactory());
+		} else if("smile".equals(format)) {
+			builder.factory(new SmileFactory());
+		}
+		objectMapper = builder.build();
+		List<BookDTO> content = LongStream.range(0, pageSize)
+				.mapToObj(id -> BookDTO.builder().id(id).title("Titulo " + id).author("Autor " + id).isbn("isbn-" + id).build())
+				.collect(Collectors.toList());
+		page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+		encodedPage = objectMapper.writeValueAsBytes(page);
+		System.out.printf("%n%s page of %d books: %d bytes%n", format, pageSize, encodedPage.length);
+	}
+
+	@Benchmark
+	public byte[] encodePage() throws Exception {
+		return objectMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public JsonNode decodePage() throws Exception {
+		return objectMapper.readTree(encodedPage);
+	}
+}
@@ -0,0 +1,111 @@
+package com.phroque.livrosapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.phroque.livrosapi.config.AdmissionControlFilter.Group;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AdmissionControlFilterTest {
+
+	AtomicLong now = new AtomicLong();
+
+	private MockHttpServletRequest request(String method, String uri, String client) {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+		request.setRemoteAddr(client);
+		return request;
+	}
+
+	@Test
+	@DisplayName("Deve limitar a taxa de cada cliente e responder 429 com Retry-After")
+	public void rateLimitTest() throws Exception {
+		AdmissionControlFilter filter = new AdmissionControlFilter(
+				List.of(new Group("search", request -> true, 0.5, 2, 10, 100)), 100, now::get);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		filter.bindTo(registry);
+
+		for(int i = 0; i < 2; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			filter.doFilter(request("GET", "/api/books", "10.0.0.1"), response, (req, res) -> {});
+			assertThat(response.getStatus()).isEqualTo(200);
+		}
+		MockHttpServletResponse limited = new MockHttpServletResponse();
+		filter.doFilter(request("GET", "/api/books", "10.0.0.1"), limited, (req, res) -> {});
+		assertThat(limited.getStatus()).isEqualTo(429);
+		assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+
+		MockHttpServletResponse other = new MockHttpServletResponse();
+		filter.doFilter(request("GET", "/api/books", "10.0.0.2"), other, (req, res) -> {});
+		assertThat(other.getStatus()).isEqualTo(200);
+
+		now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+		MockHttpServletResponse refilled = new MockHttpServletResponse();
+		filter.doFilter(request("GET", "/api/books", "10.0.0.1"), refilled, (req, res) -> {});
+		assertThat(refilled.getStatus()).isEqualTo(200);
+
+		assertThat(registry.get("livros.admission.requests").tags("group", "search", "outcome", "admitted")
+				.functionCounter().count()).isEqualTo(4);
+		assertThat(registry.get("livros.admission.requests").tags("group", "search", "outcome", "rate-limited")
+				.functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve rejeitar com 503 acima do limite de concorrência do grupo sem afetar os outros grupos")
+	public void concurrencyLimitTest() throws Exception {
+		AdmissionControlFilter filter = new AdmissionControlFilter(List.of(
+				new Group("loans", request -> request.getRequestURI().startsWith("/api/loans"), 100, 100, 10, 100),
+				new Group("search", request -> true, 100, 100, 1, 100)), 100, now::get);
+		MockHttpServletResponse overloaded = new MockHttpServletResponse();
+		MockHttpServletResponse loan = new MockHttpServletResponse();
+		MockHttpServletResponse first = new MockHttpServletResponse();
+
+		// the second search and the loan arrive while the first search is running
+		filter.doFilter(request("GET", "/api/books", "10.0.0.1"), first, (req, res) -> {
+			filter.doFilter(request("GET", "/api/books", "10.0.0.2"), overloaded, (innerReq, innerRes) -> {});
+			filter.doFilter(request("POST", "/api/loans", "10.0.0.2"), loan, (innerReq, innerRes) -> {});
+		});
+
+		assertThat(first.getStatus()).isEqualTo(200);
+		assertThat(overloaded.getStatus()).isEqualTo(503);
+		assertThat(overloaded.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(overloaded.getContentAsString()).isEqualTo(AdmissionControlFilter.OVERLOADED);
+		assertThat(loan.getStatus()).isEqualTo(200);
+
+		MockHttpServletResponse after = new MockHttpServletResponse();
+		filter.doFilter(request("GET", "/api/books", "10.0.0.2"), after, (req, res) -> {});
+		assertThat(after.getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	@DisplayName("Deve rejeitar com 503 acima do limite global de requisições em andamento")
+	public void globalLimitTest() throws Exception {
+		AdmissionControlFilter filter = new AdmissionControlFilter(List.of(
+				new Group("loans", request -> request.getRequestURI().startsWith("/api/loans"), 100, 100, 10, 100),
+				new Group("search", request -> true, 100, 100, 10, 100)), 1, now::get);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		filter.bindTo(registry);
+		MockHttpServletResponse first = new MockHttpServletResponse();
+		MockHttpServletResponse loan = new MockHttpServletResponse();
+
+		filter.doFilter(request("GET", "/api/books", "10.0.0.1"), first, (req, res) -> {
+			assertThat(registry.get("livros.admission.in.flight.total").gauge().value()).isEqualTo(1);
+			filter.doFilter(request("POST", "/api/loans", "10.0.0.2"), loan, (innerReq, innerRes) -> {});
+		});
+
+		assertThat(first.getStatus()).isEqualTo(200);
+		assertThat(loan.getStatus()).isEqualTo(503);
+		assertThat(loan.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+		assertThat(registry.get("livros.admission.in.flight").tags("group", "loans").gauge().value()).isZero();
+		assertThat(filter.getInFlight()).isZero();
+	}
+}
@@ -0,0 +1,109 @@
+package com.phroque.livrosapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phroque.livrosapi.dto.BookDTO;
+import com.zaxxer.hikari.HikariDataSource;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+		"livros.datasource.routing.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:lagging-primary;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"livros.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:lagging-replica;DB_CLOSE_DELAY=-1",
+		"livros.datasource.replica.hikari.username=sa",
+		"livros.datasource.replica.link-primary=true" })
+@AutoConfigureMockMvc
+public class LaggingReplicaTest {
+
+	private static final String WRITER = "10.0.1.1";
+	private static final String READER = "10.0.1.2";
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	@Qualifier("primaryDataSource")
+	HikariDataSource primaryDataSource;
+
+	@Autowired
+	@Qualifier("replicaDataSource")
+	HikariDataSource replicaDataSource;
+
+	/**
+	 * Replaces the linked book table of the replica with a copy of the
+	 * primary's rows as they are now, which later writes do not reach.
+	 */
+	private void stopReplication() {
+		JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+		replica.execute(String.format("create linked table primary_book('', '%s', '%s', '', 'PUBLIC', 'BOOK') readonly",
+				primaryDataSource.getJdbcUrl(), primaryDataSource.getUsername()));
+		replica.execute("drop table book");
+		replica.execute("create table book as select * from primary_book");
+	}
+
+	private String replicaTitle(long id) {
+		return new JdbcTemplate(replicaDataSource).queryForObject("select title from book where id = ?", String.class, id);
+	}
+
+	@Test
+	@DisplayName("Deve ler a própria escrita mesmo com a réplica atrasada e o livro lido por outro cliente")
+	public void readOwnWriteOnLaggingReplicaTest() throws Exception {
+		ObjectMapper json = new ObjectMapper();
+		String created = mvc.perform(MockMvcRequestBuilders.post("/api/books")
+				.with(request -> { request.setRemoteAddr(WRITER); return request; })
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(json.writeValueAsString(BookDTO.builder().title("Antes").author("Fulano").isbn("lag-001").build())))
+			.andExpect(status().isCreated())
+			.andReturn().getResponse().getContentAsString();
+		long id = json.readValue(created, BookDTO.class).getId();
+
+		stopReplication();
+
+		mvc.perform(MockMvcRequestBuilders.put("/api/books/" + id)
+				.with(request -> { request.setRemoteAddr(WRITER); return request; })
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(json.writeValueAsString(BookDTO.builder().title("Depois").author("Fulano").build())))
+			.andExpect(status().isOk());
+		assertThat(replicaTitle(id)).isEqualTo("Antes");
+
+		// a revalidation of the version the replica still has is not answered from it
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/" + id)
+				.with(request -> { request.setRemoteAddr(READER); return request; })
+				.header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "\"1\""));
+
+		// another client fills the cache between the write and the writer's read
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/" + id)
+				.with(request -> { request.setRemoteAddr(READER); return request; }))
+			.andExpect(status().isOk());
+
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/" + id)
+				.with(request -> { request.setRemoteAddr(WRITER); return request; }))
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "\"1\""))
+			.andExpect(jsonPath("title").value("Depois"));
+	}
+}
@@ -0,0 +1,61 @@
+package com.phroque.livrosapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "livros.admission.enabled=true")
+@AutoConfigureMockMvc
+public class MetricsConfigurationTest {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	MeterRegistry registry;
+
+	@Test
+	@DisplayName("Deve medir endpoints, servicos e repositorios e contar rejeicoes de negocio")
+	public void metricsTest() throws Exception {
+		String json = "{\"title\":\"Metricas\",\"author\":\"Fulano\",\"isbn\":\"metrics-001\"}";
+
+		mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+			.andExpect(status().isCreated());
+		mvc.perform(MockMvcRequestBuilders.post("/api/books").contentType(MediaType.APPLICATION_JSON).content(json))
+			.andExpect(status().isBadRequest());
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/" + Long.MAX_VALUE))
+			.andExpect(status().isNotFound());
+
+		assertThat(registry.find("http.server.requests").tag("uri", "/api/books").timer()).isNotNull();
+		assertThat(registry.find("livros.service").tag("class", "com.phroque.livrosapi.services.BookServiceImpl")
+				.tag("method", "save").tag("exception", "BusinessException").timer().count()).isEqualTo(1);
+		assertThat(registry.find("spring.data.repository.invocations").tag("repository", "BookRepository").timers()).isNotEmpty();
+		assertThat(registry.find("livros.rejections").tag("reason", "Isbn já cadastrado.").counter().count()).isEqualTo(1);
+		assertThat(registry.find("livros.rejections").tag("reason", "Not Found").counter().count()).isEqualTo(1);
+		assertThat(registry.find("cache.gets").tag("cache", "books").meters()).isNotEmpty();
+		assertThat(registry.find("livros.admission.requests").tag("group", "writes").tag("outcome", "admitted")
+				.functionCounter().count()).isGreaterThanOrEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Deve expor as metricas pelo endpoint do actuator")
+	public void metricsEndpointTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get("/actuator/metrics/livros.isbn.index.entries"))
+			.andExpect(status().isOk());
+	}
+}
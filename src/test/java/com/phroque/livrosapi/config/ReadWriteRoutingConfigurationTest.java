@@ -0,0 +1,90 @@
+package com.phroque.livrosapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phroque.livrosapi.dto.BookDTO;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+		"livros.datasource.routing.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"livros.datasource.replica.hikari.jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+		"livros.datasource.replica.hikari.username=sa",
+		"livros.datasource.replica.link-primary=true" })
+@AutoConfigureMockMvc
+public class ReadWriteRoutingConfigurationTest {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	ReadYourWritesFilter readYourWrites;
+
+	private String database(boolean readOnly) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(readOnly);
+		return template.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+	}
+
+	@Test
+	@DisplayName("Deve ler no réplica em transações somente leitura e escrever no primário")
+	public void routeByTransactionTest() {
+		assertThat(database(true)).isEqualToIgnoringCase("replica");
+		assertThat(database(false)).isEqualToIgnoringCase("primary");
+
+		ReadWriteRoutingDataSource.pinToPrimary();
+		try {
+			assertThat(database(true)).isEqualToIgnoringCase("primary");
+		} finally {
+			ReadWriteRoutingDataSource.unpin();
+		}
+	}
+
+	@Test
+	@DisplayName("Deve manter no primário apenas o cliente que acabou de escrever")
+	public void readYourWritesTest() throws Exception {
+		BookDTO book = BookDTO.builder().title("Replicado").author("Fulano").isbn("replica-001").build();
+		mvc.perform(MockMvcRequestBuilders.post("/api/books")
+				.with(request -> { request.setRemoteAddr("10.0.0.1"); return request; })
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(book)))
+			.andExpect(status().isCreated());
+
+		assertThat(readYourWrites.isPinned("10.0.0.1")).isTrue();
+		assertThat(readYourWrites.isPinned("10.0.0.2")).isFalse();
+
+		mvc.perform(MockMvcRequestBuilders.get("/api/books")
+				.with(request -> { request.setRemoteAddr("10.0.0.2"); return request; })
+				.param("isbn", "replica-001"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("total").value(1))
+			.andExpect(jsonPath("content[0].title").value("Replicado"));
+	}
+}
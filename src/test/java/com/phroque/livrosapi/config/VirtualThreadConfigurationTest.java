@@ -0,0 +1,28 @@
+package com.phroque.livrosapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VirtualThreadConfigurationTest {
+
+	@Test
+	@DisplayName("Deve executar em threads virtuais a partir do Java 21 e falhar na inicialização antes disso")
+	public void virtualThreadExecutorTest() throws Exception {
+		if(Runtime.version().feature() < 21) {
+			Throwable exception = catchThrowable(VirtualThreadConfiguration::newVirtualThreadPerTaskExecutor);
+			assertThat(exception).isInstanceOf(IllegalStateException.class).hasMessageStartingWith("Virtual threads need Java 21");
+			return;
+		}
+		ExecutorService executor = VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor();
+		Boolean virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread())).get();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+		assertThat(virtual).isTrue();
+	}
+}
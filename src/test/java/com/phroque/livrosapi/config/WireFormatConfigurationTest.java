@@ -0,0 +1,74 @@
+package com.phroque.livrosapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.phroque.livrosapi.dto.BookDTO;
+import com.phroque.livrosapi.dto.LoanDTO;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class WireFormatConfigurationTest {
+
+	static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+	@Autowired
+	MockMvc mvc;
+
+	@Test
+	@DisplayName("Deve aceitar e responder livros e empréstimos em CBOR e Smile")
+	public void binaryFormatsTest() throws Exception {
+		CBORMapper cbor = new CBORMapper();
+		SmileMapper smile = new SmileMapper();
+		BookDTO book = BookDTO.builder().title("Formato binario").author("Fulano").isbn("wire-001").build();
+
+		byte[] created = mvc.perform(MockMvcRequestBuilders.post("/api/books")
+				.contentType(MediaType.APPLICATION_CBOR)
+				.accept(MediaType.APPLICATION_CBOR)
+				.content(cbor.writeValueAsBytes(book)))
+			.andExpect(status().isCreated())
+			.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+			.andReturn().getResponse().getContentAsByteArray();
+		assertThat(cbor.readValue(created, BookDTO.class).getId()).isNotNull();
+
+		byte[] page = mvc.perform(MockMvcRequestBuilders.get("/api/books").param("isbn", "wire-001").accept(SMILE))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(SMILE))
+			.andReturn().getResponse().getContentAsByteArray();
+		JsonNode decoded = smile.readTree(page);
+		assertThat(decoded.get("content").get(0).get("title").asText()).isEqualTo("Formato binario");
+		assertThat(page.length).isLessThan(new ObjectMapper().writeValueAsBytes(decoded).length);
+
+		mvc.perform(MockMvcRequestBuilders.post("/api/loans")
+				.contentType(SMILE)
+				.content(smile.writeValueAsBytes(LoanDTO.builder().isbn("wire-001").customer("Fulano").build())))
+			.andExpect(status().isCreated());
+	}
+
+	@Test
+	@DisplayName("Deve manter JSON como formato padrão")
+	public void jsonByDefaultTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get("/api/books").accept(MediaType.ALL))
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+}
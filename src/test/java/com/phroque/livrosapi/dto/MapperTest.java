@@ -0,0 +1,41 @@
+package com.phroque.livrosapi.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+
+public class MapperTest {
+
+	ModelMapper modelMapper = new ModelMapper();
+	BookMapper bookMapper = new BookMapper();
+	LoanMapper loanMapper = new LoanMapper();
+	
+	@Test
+	@DisplayName("Deve converter livros da mesma forma que o ModelMapper")
+	public void bookMappingTest() {
+		Book book = Book.builder().id(1l).title("As aventuras").author("Fulano").isbn("123").build();
+		BookDTO dto = BookDTO.builder().title("As aventuras").author("Fulano").isbn("123").build();
+		
+		assertThat(bookMapper.toDto(book)).usingRecursiveComparison().isEqualTo(modelMapper.map(book, BookDTO.class));
+		assertThat(bookMapper.toEntity(dto)).isEqualTo(modelMapper.map(dto, Book.class));
+		assertThat(bookMapper.toEntity(new BookDTO())).isEqualTo(new Book());
+	}
+	
+	@Test
+	@DisplayName("Deve converter emprestimos")
+	public void loanMappingTest() {
+		Book book = Book.builder().id(1l).isbn("123").build();
+		LoanDTO dto = LoanDTO.builder().isbn("123").customer("Fulano").build();
+		
+		Loan loan = loanMapper.toEntity(dto, book);
+		
+		assertThat(loan.getBook()).isEqualTo(book);
+		assertThat(loan.getCustomer()).isEqualTo("Fulano");
+		assertThat(loanMapper.toDto(loan)).isEqualTo(dto);
+	}
+}
@@ -2,6 +2,8 @@ package com.phroque.livrosapi.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import org.assertj.core.api.Assertions;
@@ -11,11 +13,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.phroque.livrosapi.model.entity.Book;
 import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.BookSpecifications;
+import com.phroque.livrosapi.services.BookCursor;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -69,6 +76,59 @@ public class BookRepositoryTest {
 		
 	}
 	
+	@Test
+	@DisplayName("Deve obter apenas a versão de um livro e rejeitar a escrita de uma versão antiga.")
+	public void versionTest() {
+		Book book = entityManager.persistFlushFind(createNewBook("123"));
+		book.setTitle("Novo titulo");
+		entityManager.flush();
+		entityManager.clear();
+		
+		assertThat(repository.findVersionById(book.getId())).contains(1l);
+		assertThat(repository.findVersionById(Long.MAX_VALUE)).isEmpty();
+		
+		Book stale = book.toBuilder().version(0l).build();
+		Throwable exception = Assertions.catchThrowable(() -> repository.saveAndFlush(stale));
+		assertThat(exception).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+	}
+	
+	@Test
+	@DisplayName("Deve atualizar parcialmente um livro em um único update conferindo a versão.")
+	public void patchTest() {
+		Book book = entityManager.persistFlushFind(createNewBook("123"));
+		entityManager.clear();
+		
+		Optional<Book> before = repository.patch(book.getId(), 0l, "Novo titulo", null);
+		assertThat(before).isPresent();
+		assertThat(before.get().getTitle()).isEqualTo(book.getTitle());
+		assertThat(before.get().getAuthor()).isEqualTo("Fulano");
+		assertThat(repository.patch(book.getId(), 0l, null, "Ciclano")).isEmpty();
+		assertThat(repository.patch(Long.MAX_VALUE, null, "Novo titulo", null)).isEmpty();
+		entityManager.clear();
+		
+		Book patched = entityManager.find(Book.class, book.getId());
+		assertThat(patched.getTitle()).isEqualTo("Novo titulo");
+		assertThat(patched.getAuthor()).isEqualTo("Fulano");
+		assertThat(patched.getVersion()).isEqualTo(1l);
+	}
+	
+	@Test
+	@DisplayName("Deve deletar um livro em um único delete retornando a linha removida.")
+	public void removeTest() {
+		Book book = entityManager.persistFlushFind(createNewBook("123"));
+		entityManager.clear();
+		
+		assertThat(repository.remove(book.getId(), 3l)).isEmpty();
+		Optional<Book> removed = repository.remove(book.getId(), 0l);
+		assertThat(removed).isPresent();
+		assertThat(removed.get().getIsbn()).isEqualTo("123");
+		assertThat(removed.get().getAuthor()).isEqualTo("Fulano");
+		assertThat(repository.remove(book.getId(), null)).isEmpty();
+		entityManager.clear();
+		
+		assertThat(entityManager.find(Book.class, book.getId())).isNull();
+	}
+	
 	@Test
 	@DisplayName("Deve salvar um livro.")
 	public void saveBookTest() {
@@ -94,4 +154,60 @@ public class BookRepositoryTest {
 		assertThat(deleteBook).isNull();
 		
 	}
+	
+	@Test
+	@DisplayName("Não deve permitir dois livros com o mesmo isbn.")
+	public void uniqueIsbnTest() {
+		entityManager.persist(createNewBook("123"));
+		
+		Throwable exception = Assertions.catchThrowable(() -> repository.saveAndFlush(createNewBook("123")));
+		
+		assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+	}
+	
+	@Test
+	@DisplayName("Deve buscar a proxima pagina a partir da ultima chave lida.")
+	public void findTopAfterKeyTest() {
+		Book first = entityManager.persist(Book.builder().title("B").author("Fulano").isbn("1").build());
+		Book second = entityManager.persist(Book.builder().title("A").author("Fulano").isbn("2").build());
+		Book third = entityManager.persist(Book.builder().title("B").author("Ciclano").isbn("3").build());
+		entityManager.persist(Book.builder().title("C").author("Beltrano").isbn("4").build());
+		Sort sort = Sort.by("title").and(Sort.by("id"));
+		
+		List<Book> page = repository.findTop(BookSpecifications.after("title", true, "A", second.getId()), sort, 2);
+		
+		assertThat(page).containsExactly(first, third);
+		
+		List<Book> filtered = repository.findTop(
+				BookSpecifications.matching(Book.builder().author("fulANO").build())
+					.and(BookSpecifications.after("title", true, "A", second.getId())), sort, 10);
+		
+		assertThat(filtered).containsExactly(first);
+	}
+	
+	@Test
+	@DisplayName("Deve paginar por cursor sem pular livros de titulo nulo ou vazio.")
+	public void findTopAfterNullKeyTest() {
+		Book nullTitle = entityManager.persist(Book.builder().author("Fulano").isbn("1").build());
+		Book empty = entityManager.persist(Book.builder().title("").author("Fulano").isbn("2").build());
+		Book a = entityManager.persist(Book.builder().title("A").author("Fulano").isbn("3").build());
+		Book otherNullTitle = entityManager.persist(Book.builder().author("Fulano").isbn("4").build());
+		
+		assertThat(walk(BookCursor.first(Sort.by(Sort.Direction.ASC, "title"))))
+			.containsExactly(nullTitle, otherNullTitle, empty, a);
+		assertThat(walk(BookCursor.first(Sort.by(Sort.Direction.DESC, "title"))))
+			.containsExactly(a, empty, otherNullTitle, nullTitle);
+	}
+	
+	// one book per page, each cursor passed through its token
+	private List<Book> walk(BookCursor cursor) {
+		List<Book> books = new ArrayList<>();
+		List<Book> page = repository.findTop(cursor.toSpecification(), cursor.getSort(), 1);
+		while(!page.isEmpty() && books.size() < 10) {
+			books.add(page.get(0));
+			cursor = BookCursor.decode(cursor.next(page.get(0)).encode());
+			page = repository.findTop(cursor.toSpecification(), cursor.getSort(), 1);
+		}
+		return books;
+	}
 }
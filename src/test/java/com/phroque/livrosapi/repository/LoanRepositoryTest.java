@@ -0,0 +1,85 @@
+package com.phroque.livrosapi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.CustomerLoan;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+import com.phroque.livrosapi.model.repository.LoanReturnState;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoanRepositoryTest {
+
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Autowired
+	LoanRepository repository;
+	
+	@Test
+	@DisplayName("Deve devolver somente os empréstimos abertos e liberar o livro para um novo empréstimo")
+	public void markReturnedTest() {
+		Loan open = persistLoan("1", false);
+		Loan returned = persistLoan("2", true);
+		
+		List<LoanReturnState> states = repository.findReturnStates(List.of(returned.getId(), open.getId(), Long.MAX_VALUE));
+		int updated = repository.markReturned(List.of(open.getId(), returned.getId()));
+		entityManager.clear();
+		
+		assertThat(states).extracting(LoanReturnState::getId).containsExactly(open.getId(), returned.getId());
+		assertThat(states).extracting(LoanReturnState::getReturned).containsExactly(false, true);
+		assertThat(updated).isEqualTo(1);
+		Loan found = entityManager.find(Loan.class, open.getId());
+		assertThat(found.getReturned()).isTrue();
+		assertThat(found.getActiveBookId()).isNull();
+	}
+	
+	@Test
+	@DisplayName("Deve listar os empréstimos do cliente do mais recente a partir da última chave lida")
+	public void findByCustomerTest() {
+		Loan oldest = persistLoan("1", true, LocalDate.of(2020, 1, 1));
+		Loan open = persistLoan("2", false, LocalDate.of(2020, 2, 1));
+		Loan newest = persistLoan("3", true, LocalDate.of(2020, 3, 1));
+		
+		List<CustomerLoan> first = repository.findByCustomer("Fulano", false, LocalDate.of(9999, 12, 31), Long.MAX_VALUE, PageRequest.of(0, 2));
+		List<CustomerLoan> second = repository.findByCustomer("Fulano", false, open.getLoanDate(), open.getId(), PageRequest.of(0, 2));
+		List<CustomerLoan> active = repository.findByCustomer("Fulano", true, LocalDate.of(9999, 12, 31), Long.MAX_VALUE, PageRequest.of(0, 2));
+		
+		assertThat(first).extracting(CustomerLoan::getId).containsExactly(newest.getId(), open.getId());
+		assertThat(first).extracting(CustomerLoan::getIsbn).containsExactly("3", "2");
+		assertThat(second).extracting(CustomerLoan::getId).containsExactly(oldest.getId());
+		assertThat(active).extracting(CustomerLoan::getId).containsExactly(open.getId());
+		assertThat(repository.findByCustomer("Ciclano", false, LocalDate.of(9999, 12, 31), Long.MAX_VALUE, PageRequest.of(0, 2))).isEmpty();
+	}
+	
+	private Loan persistLoan(String isbn, boolean returned) {
+		return persistLoan(isbn, returned, LocalDate.now());
+	}
+	
+	private Loan persistLoan(String isbn, boolean returned, LocalDate loanDate) {
+		Book book = entityManager.persist(Book.builder().title("Aventuras").author("Fulano").isbn(isbn).build());
+		return entityManager.persistAndFlush(Loan.builder()
+				.book(book)
+				.customer("Fulano")
+				.loanDate(loanDate)
+				.returned(returned)
+				.activeBookId(returned ? null : book.getId())
+				.build());
+	}
+}
@@ -1,6 +1,8 @@
 package com.phroque.livrosapi.resources;
 
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -21,6 +23,9 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -33,6 +38,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.phroque.livrosapi.dto.BookDTO;
 import com.phroque.livrosapi.exception.BusinessException;
 import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.services.BookCursor;
 import com.phroque.livrosapi.services.BookService;
 
 @ExtendWith(SpringExtension.class)
@@ -164,7 +170,7 @@ public class BookControllerTest {
 	@Test
 	@DisplayName("Deve deletar um livro")
 	public void deleteBookTest() throws Exception {
-		BDDMockito.given(service.getById(anyLong())).willReturn(Optional.of(Book.builder().id(1l).build()));
+		BDDMockito.given(service.deleteById(1l, null)).willReturn(true);
 		
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
 			.delete(BOOK_API.concat("/" + 1))
@@ -172,6 +178,26 @@ public class BookControllerTest {
 		
 		mvc.perform(request)
 			.andExpect(status().isNoContent());
+		Mockito.verify(service, Mockito.never()).getById(Mockito.anyLong());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 404 ao deletar um livro inexistente")
+	public void deleteInexistentBookTest() throws Exception {
+		BDDMockito.given(service.deleteById(1l, null)).willReturn(false);
+		
+		mvc.perform(MockMvcRequestBuilders.delete(BOOK_API.concat("/" + 1)))
+			.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 412 ao deletar um livro com If-Match de versão antiga")
+	public void staleIfMatchDeleteTest() throws Exception {
+		BDDMockito.given(service.deleteById(1l, 3l)).willReturn(false);
+		BDDMockito.given(service.getVersion(1l)).willReturn(Optional.of(4l));
+		
+		mvc.perform(MockMvcRequestBuilders.delete(BOOK_API.concat("/" + 1)).header(HttpHeaders.IF_MATCH, "\"3\""))
+			.andExpect(status().isPreconditionFailed());
 	}
 	
 	@Test
@@ -180,12 +206,8 @@ public class BookControllerTest {
 		Long id = 1l;
 		String json = new ObjectMapper().writeValueAsString(createNewBook());
 		
-		Book updatingBook = Book.builder().id(1l).title("some title").author("some author").isbn("321").build();
-		
-		BDDMockito.given(service.getById(id)).willReturn(Optional.of(updatingBook));
-		
-		Book updatedBook = Book.builder().id(id).author("Artur").title("As aventuras").isbn("321").build();
-		BDDMockito.given(service.update(updatingBook)).willReturn(updatedBook);
+		Book updatedBook = Book.builder().id(id).author("Artur").title("As aventuras").isbn("321").version(1l).build();
+		BDDMockito.given(service.replace(Mockito.any(Book.class))).willReturn(Optional.of(updatedBook));
 		
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
 				.put(BOOK_API.concat("/" + 1))
@@ -199,7 +221,27 @@ public class BookControllerTest {
 				.andExpect(jsonPath("id").value(id))
 				.andExpect(jsonPath("title").value(createNewBook().getTitle()))
 				.andExpect(jsonPath("author").value(createNewBook().getAuthor()))
-				.andExpect(jsonPath("isbn").value("321"));
+				.andExpect(jsonPath("isbn").value("321"))
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+		Mockito.verify(service).replace(Mockito.argThat(changes -> changes.getId() == 1l 
+				&& "As aventuras".equals(changes.getTitle()) && "Artur".equals(changes.getAuthor()) && changes.getVersion() == null));
+		Mockito.verify(service, Mockito.never()).getById(Mockito.anyLong());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar erro de validação ao atualizar um livro com título ou autor em branco")
+	public void updateInvalidBookTest() throws Exception {
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.put(BOOK_API.concat("/" + 1))
+				.content("{\"title\":\" \"}")
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON);
+		
+		mvc
+			.perform(request)
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("errors", Matchers.hasSize(2)));
+		Mockito.verify(service, Mockito.never()).replace(Mockito.any(Book.class));
 	}
 	
 	@Test
@@ -208,7 +250,7 @@ public class BookControllerTest {
 		
 		String json = new ObjectMapper().writeValueAsString(createNewBook());
 		
-		BDDMockito.given(service.getById(Mockito.anyLong())).willReturn(Optional.empty());
+		BDDMockito.given(service.replace(Mockito.any(Book.class))).willReturn(Optional.empty());
 		
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
 				.put(BOOK_API.concat("/" + 1))
@@ -221,6 +263,153 @@ public class BookControllerTest {
 				.andExpect(status().isNotFound());
 	}
 	
+	@Test
+	@DisplayName("Deve atualizar parcialmente um livro sem carregá-lo")
+	public void patchBookTest() throws Exception {
+		BDDMockito.given(service.patch(Mockito.any(Book.class))).willReturn(true);
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.patch(BOOK_API.concat("/" + 1))
+				.header(HttpHeaders.IF_MATCH, "\"3\"")
+				.content("{\"title\":\"Novo titulo\"}")
+				.contentType(MediaType.APPLICATION_JSON);
+		
+		mvc
+			.perform(request)
+				.andExpect(status().isNoContent())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+		Mockito.verify(service).patch(Mockito.argThat(changes -> changes.getId() == 1l 
+				&& "Novo titulo".equals(changes.getTitle()) && changes.getAuthor() == null && changes.getVersion() == 3l));
+		Mockito.verify(service, Mockito.never()).getById(Mockito.anyLong());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar o livro atualizado parcialmente quando pedido")
+	public void patchBookRepresentationTest() throws Exception {
+		Book book = Book.builder().id(1l).title("Novo titulo").author("Artur").isbn("001").version(4l).build();
+		BDDMockito.given(service.patch(Mockito.any(Book.class))).willReturn(true);
+		BDDMockito.given(service.getById(1l)).willReturn(Optional.of(book));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.patch(BOOK_API.concat("/" + 1))
+				.header("Prefer", "return=representation")
+				.content("{\"title\":\"Novo titulo\"}")
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON);
+		
+		mvc
+			.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+				.andExpect(jsonPath("title").value("Novo titulo"))
+				.andExpect(jsonPath("author").value("Artur"));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 404 ou 412 quando a atualização parcial não altera linha")
+	public void patchNotUpdatedBookTest() throws Exception {
+		BDDMockito.given(service.patch(Mockito.any(Book.class))).willReturn(false);
+		BDDMockito.given(service.getVersion(1l)).willReturn(Optional.of(4l));
+		
+		mvc
+			.perform(MockMvcRequestBuilders.patch(BOOK_API.concat("/" + 1))
+				.header(HttpHeaders.IF_MATCH, "\"3\"")
+				.content("{\"author\":\"Ciclano\"}")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isPreconditionFailed());
+		
+		mvc
+			.perform(MockMvcRequestBuilders.patch(BOOK_API.concat("/" + 2))
+				.content("{\"author\":\"Ciclano\"}")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar erro de validação ao atualizar parcialmente com título em branco")
+	public void patchInvalidBookTest() throws Exception {
+		mvc
+			.perform(MockMvcRequestBuilders.patch(BOOK_API.concat("/" + 1))
+				.content("{\"title\":\"  \"}")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("errors", Matchers.hasSize(1)));
+		Mockito.verify(service, Mockito.never()).patch(Mockito.any(Book.class));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 304 pela versão do livro sem carregá-lo")
+	public void notModifiedBookTest() throws Exception {
+		BDDMockito.given(service.getVersion(1l)).willReturn(Optional.of(3l));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.get(BOOK_API.concat("/" + 1))
+				.header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+				.accept(MediaType.APPLICATION_JSON);
+		
+		mvc
+			.perform(request)
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+		Mockito.verify(service, Mockito.never()).getById(Mockito.anyLong());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar o livro com ETag quando a versão mudou")
+	public void modifiedBookTest() throws Exception {
+		Book book = Book.builder().id(1l).title("As aventuras").author("Artur").isbn("001").version(4l).build();
+		BDDMockito.given(service.getVersion(1l)).willReturn(Optional.of(4l));
+		BDDMockito.given(service.getById(1l)).willReturn(Optional.of(book));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.get(BOOK_API.concat("/" + 1))
+				.header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+				.accept(MediaType.APPLICATION_JSON);
+		
+		mvc
+			.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+				.andExpect(jsonPath("title").value("As aventuras"));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 412 ao atualizar um livro com If-Match de versão antiga")
+	public void staleIfMatchUpdateTest() throws Exception {
+		String json = new ObjectMapper().writeValueAsString(createNewBook());
+		BDDMockito.given(service.replace(Mockito.any(Book.class))).willReturn(Optional.empty());
+		BDDMockito.given(service.getVersion(1l)).willReturn(Optional.of(4l));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.put(BOOK_API.concat("/" + 1))
+				.header(HttpHeaders.IF_MATCH, "\"3\"")
+				.content(json)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON);
+		
+		mvc
+			.perform(request)
+				.andExpect(status().isPreconditionFailed());
+		Mockito.verify(service).replace(Mockito.argThat(changes -> changes.getVersion() == 3l));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 304 para uma página de busca que não mudou")
+	public void notModifiedPageTest() throws Exception {
+		Book book = Book.builder().id(1l).title("As aventuras").author("Artur").isbn("001").version(1l).build();
+		BDDMockito.given(service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)))
+			.willReturn(new PageImpl<Book>(List.of(book), PageRequest.of(0, 100), 1));
+		
+		String etag = mvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=100")))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		
+		mvc
+			.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=100")).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+	}
+	
 	@Test
 	@DisplayName("Deve filtrar livros")
 	public void findBooksTest() throws Exception {
@@ -249,10 +438,52 @@ public class BookControllerTest {
 			.perform(request)
 			.andExpect(status().isOk())
 			.andExpect(jsonPath("content", Matchers.hasSize(1)))
-			.andExpect(jsonPath("totalElements").value(1))
-			.andExpect(jsonPath("pageable.pageSize").value(100))
-			.andExpect(jsonPath("pageable.pageNumber").value(0));
+			.andExpect(jsonPath("content[0].title").value(createNewBook().getTitle()))
+			.andExpect(jsonPath("total").value(1))
+			.andExpect(jsonPath("size").value(100))
+			.andExpect(jsonPath("page").value(0))
+			.andExpect(jsonPath("pageable").doesNotExist());
+		
+	}
+	
+	@Test
+	@DisplayName("Deve filtrar livros por cursor sem contar o total")
+	public void findBooksByCursorTest() throws Exception {
+		Book book = Book.builder().id(7l).title("As aventuras").author("Artur").isbn("001").build();
+		List<Book> list = new ArrayList<Book>();
+		list.add(book);
+		
+		BDDMockito.given(service.findAfter(Mockito.any(Book.class), Mockito.any(BookCursor.class), Mockito.eq(1)))
+			.willReturn(new SliceImpl<Book>(list, PageRequest.of(0, 1), true));
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+			.get(BOOK_API.concat("?author=Artur&cursor=&size=1&sort=title,desc"))
+			.accept(MediaType.APPLICATION_JSON);
+		
+		String next = BookCursor.first(Sort.by(Sort.Direction.DESC, "title")).next(book).encode();
 		
+		mvc
+			.perform(request)
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("content", Matchers.hasSize(1)))
+			.andExpect(jsonPath("size").value(1))
+			.andExpect(jsonPath("next").value(next))
+			.andExpect(jsonPath("totalElements").doesNotExist());
+		
+		Mockito.verify(service, Mockito.never()).find(Mockito.any(Book.class), Mockito.any(Pageable.class));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar erro para um cursor invalido")
+	public void invalidCursorTest() throws Exception {
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+			.get(BOOK_API.concat("?cursor=invalido"))
+			.accept(MediaType.APPLICATION_JSON);
+		
+		mvc
+			.perform(request)
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("errors[0]").value("Invalid cursor."));
 	}
 	
 	private BookDTO createNewBook() {
@@ -0,0 +1,73 @@
+package com.phroque.livrosapi.resources;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.phroque.livrosapi.dto.BookDeletionResultDTO;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.services.BookDeletionService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = BookDeletionController.class)
+@AutoConfigureMockMvc
+public class BookDeletionControllerTest {
+	
+	static String BOOK_API = "/api/books";
+
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	BookDeletionService service;
+	
+	@Test
+	@DisplayName("Deve deletar livros em lote pelos ids")
+	public void deleteByIdsTest() throws Exception {
+		BDDMockito.given(service.deleteAll(List.of(1l, 2l, 3l)))
+			.willReturn(BookDeletionResultDTO.builder().deleted(1).notFound(List.of(2l)).inUse(List.of(3l)).build());
+		
+		mvc.perform(MockMvcRequestBuilders.delete(BOOK_API).param("ids", "1", "2", "3"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("deleted").value(1))
+			.andExpect(jsonPath("notFound[0]").value(2))
+			.andExpect(jsonPath("inUse[0]").value(3));
+	}
+	
+	@Test
+	@DisplayName("Deve deletar livros em lote pelo filtro da busca")
+	public void deleteByFilterTest() throws Exception {
+		BDDMockito.given(service.deleteAll(Mockito.any(Book.class)))
+			.willReturn(BookDeletionResultDTO.builder().deleted(2).build());
+		
+		mvc.perform(MockMvcRequestBuilders.delete(BOOK_API).param("author", "Fulano"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("deleted").value(2));
+		Mockito.verify(service).deleteAll(Mockito.argThat((Book filter) -> "Fulano".equals(filter.getAuthor()) && filter.getTitle() == null));
+	}
+	
+	@Test
+	@DisplayName("Não deve deletar livros sem ids nem filtro")
+	public void deleteWithoutCriteriaTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.delete(BOOK_API))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("errors[0]").value("Ids or a filter are required to delete books."));
+		Mockito.verifyNoInteractions(service);
+	}
+}
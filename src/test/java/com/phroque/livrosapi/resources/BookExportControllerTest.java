@@ -0,0 +1,120 @@
+package com.phroque.livrosapi.resources;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.services.BookExportService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = BookExportController.class)
+@AutoConfigureMockMvc
+public class BookExportControllerTest {
+	
+	static String EXPORT_API = "/api/books/export";
+
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	BookExportService service;
+	
+	@SuppressWarnings("unchecked")
+	private void givenBooks() {
+		BDDMockito.willAnswer(invocation -> {
+			Consumer<Book> consumer = invocation.getArgument(1);
+			consumer.accept(Book.builder().id(1l).title("As aventuras").author("Fulano").isbn("001").build());
+			consumer.accept(Book.builder().id(2l).title("Aventuras, volume \"2\"").author("Fulano").isbn("002").build());
+			return null;
+		}).given(service).export(Mockito.any(Book.class), Mockito.any(Consumer.class));
+	}
+	
+	@Test
+	@DisplayName("Deve exportar o catalogo em ndjson")
+	@SuppressWarnings("unchecked")
+	public void exportNdjsonTest() throws Exception {
+		givenBooks();
+		
+		MvcResult result = mvc.perform(MockMvcRequestBuilders.get(EXPORT_API + "?author=Fulano").accept(BookExportController.NDJSON))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(content().string(
+					"{\"id\":1,\"title\":\"As aventuras\",\"author\":\"Fulano\",\"isbn\":\"001\"}\n"
+					+ "{\"id\":2,\"title\":\"Aventuras, volume \\\"2\\\"\",\"author\":\"Fulano\",\"isbn\":\"002\"}\n"));
+		
+		ArgumentCaptor<Book> filter = ArgumentCaptor.forClass(Book.class);
+		Mockito.verify(service).export(filter.capture(), Mockito.any(Consumer.class));
+		org.assertj.core.api.Assertions.assertThat(filter.getValue().getAuthor()).isEqualTo("Fulano");
+	}
+	
+	@Test
+	@DisplayName("Deve exportar o catalogo em csv")
+	public void exportCsvTest() throws Exception {
+		givenBooks();
+		
+		MvcResult result = mvc.perform(MockMvcRequestBuilders.get(EXPORT_API).accept(BookExportController.CSV))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(content().string("id,title,author,isbn\n"
+					+ "1,As aventuras,Fulano,001\n"
+					+ "2,\"Aventuras, volume \"\"2\"\"\",Fulano,002\n"));
+	}
+	
+	@Test
+	@DisplayName("Deve exportar em ndjson quando o cliente aceitar qualquer tipo, com o timeout da exportação")
+	public void exportDefaultTest() throws Exception {
+		givenBooks();
+		
+		MvcResult anyType = mvc.perform(MockMvcRequestBuilders.get(EXPORT_API).accept(MediaType.ALL))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		MvcResult noAccept = mvc.perform(MockMvcRequestBuilders.get(EXPORT_API))
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		
+		assertThat(anyType.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(anyType))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(BookExportController.NDJSON));
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(noAccept))
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(BookExportController.NDJSON));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 406 quando o cliente aceitar apenas um tipo que a exportação não gera")
+	public void exportNotAcceptableTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get(EXPORT_API).accept(MediaType.APPLICATION_JSON))
+			.andExpect(status().isNotAcceptable());
+		Mockito.verifyNoInteractions(service);
+	}
+}
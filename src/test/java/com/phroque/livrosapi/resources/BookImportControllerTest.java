@@ -0,0 +1,77 @@
+package com.phroque.livrosapi.resources;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.phroque.livrosapi.dto.BookImportResultDTO;
+import com.phroque.livrosapi.dto.BookImportRowDTO;
+import com.phroque.livrosapi.services.BookImportFormat;
+import com.phroque.livrosapi.services.BookImportService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = BookImportController.class)
+@AutoConfigureMockMvc
+public class BookImportControllerTest {
+	
+	static String BATCH_API = "/api/books/batch";
+
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	BookImportService service;
+	
+	@Test
+	@DisplayName("Deve importar livros em lote a partir de ndjson")
+	public void importNdjsonTest() throws Exception {
+		BookImportResultDTO result = BookImportResultDTO.builder()
+				.total(2).imported(1).rejected(1)
+				.rejectedRows(Arrays.asList(BookImportRowDTO.builder().line(2).isbn("001").errors(Arrays.asList("Isbn já cadastrado.")).build()))
+				.build();
+		BDDMockito.given(service.importBooks(Mockito.any(InputStream.class), Mockito.eq(BookImportFormat.NDJSON))).willReturn(result);
+		
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.post(BATCH_API)
+				.contentType(BookImportController.NDJSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.content("{}\n{}\n");
+		
+		mvc.perform(request)
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("imported").value(1))
+			.andExpect(jsonPath("rejectedRows[0].line").value(2))
+			.andExpect(jsonPath("rejectedRows[0].errors[0]").value("Isbn já cadastrado."));
+	}
+	
+	@Test
+	@DisplayName("Deve recusar formatos de importação não suportados")
+	public void unsupportedFormatTest() throws Exception {
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+				.post(BATCH_API)
+				.contentType(MediaType.APPLICATION_XML)
+				.content("<books/>");
+		
+		mvc.perform(request)
+			.andExpect(status().isUnsupportedMediaType());
+	}
+}
@@ -0,0 +1,54 @@
+package com.phroque.livrosapi.resources;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.services.BookService;
+import com.phroque.livrosapi.services.LoanService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BookLoanDeletionTest {
+
+	@Autowired
+	MockMvc mvc;
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	LoanService loanService;
+
+	@Test
+	@DisplayName("Deve retornar erro de negocio ao deletar um livro com emprestimo devolvido")
+	public void deleteLoanedBookTest() throws Exception {
+		Book book = bookService.save(Book.builder().title("Emprestado").author("Fulano").isbn("delete-loaned").build());
+		Loan loan = loanService.save(Loan.builder().book(book).customer("Fulano").loanDate(LocalDate.now()).build());
+		loanService.returnLoans(List.of(loan.getId()));
+
+		mvc.perform(MockMvcRequestBuilders.delete("/api/books/" + book.getId()))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("errors[0]").value("Book has loans and can not be deleted."));
+
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/" + book.getId()))
+			.andExpect(status().isOk());
+	}
+}
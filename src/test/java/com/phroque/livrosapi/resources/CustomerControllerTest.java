@@ -0,0 +1,106 @@
+package com.phroque.livrosapi.resources;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.phroque.livrosapi.dto.CustomerLoanStatsDTO;
+import com.phroque.livrosapi.model.repository.CustomerLoan;
+import com.phroque.livrosapi.services.LoanCursor;
+import com.phroque.livrosapi.services.LoanService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = CustomerController.class)
+@AutoConfigureMockMvc
+public class CustomerControllerTest {
+	
+	static String CUSTOMER_API = "/api/customers/Fulano";
+
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	LoanService service;
+	
+	@Test
+	@DisplayName("Deve listar os empréstimos do cliente com o cursor da próxima página")
+	public void findLoansTest() throws Exception {
+		CustomerLoan loan = loan(7l, LocalDate.of(2020, 2, 1));
+		BDDMockito.given(service.findByCustomer(Mockito.eq("Fulano"), Mockito.eq(true), Mockito.any(LoanCursor.class), Mockito.eq(1)))
+			.willReturn(new SliceImpl<>(List.of(loan), PageRequest.of(0, 1), true));
+		
+		mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("/loans")).param("active", "true").param("size", "1"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("content[0].id").value(7))
+			.andExpect(jsonPath("content[0].isbn").value("123"))
+			.andExpect(jsonPath("size").value(1))
+			.andExpect(jsonPath("next").value(LoanCursor.first().next(loan).encode()));
+	}
+	
+	@Test
+	@DisplayName("Deve rejeitar um cursor inválido")
+	public void invalidCursorTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("/loans")).param("cursor", "invalido"))
+			.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar os contadores do cliente")
+	public void statsTest() throws Exception {
+		BDDMockito.given(service.getCustomerStats("Fulano"))
+			.willReturn(CustomerLoanStatsDTO.builder().customer("Fulano").totalLoans(5).outstandingLoans(2).build());
+		
+		mvc.perform(MockMvcRequestBuilders.get(CUSTOMER_API.concat("/stats")))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("totalLoans").value(5))
+			.andExpect(jsonPath("outstandingLoans").value(2));
+	}
+	
+	private static CustomerLoan loan(Long id, LocalDate loanDate) {
+		return new CustomerLoan() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+			
+			@Override
+			public String getIsbn() {
+				return "123";
+			}
+			
+			@Override
+			public String getTitle() {
+				return "As aventuras";
+			}
+			
+			@Override
+			public LocalDate getLoanDate() {
+				return loanDate;
+			}
+			
+			@Override
+			public Boolean getReturned() {
+				return false;
+			}
+		};
+	}
+}
@@ -5,6 +5,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import org.hamcrest.Matchers;
@@ -26,11 +27,18 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.phroque.livrosapi.dto.LoanBatchDTO;
+import com.phroque.livrosapi.dto.LoanBatchItemDTO;
+import com.phroque.livrosapi.dto.LoanBatchResultDTO;
 import com.phroque.livrosapi.dto.LoanDTO;
+import com.phroque.livrosapi.dto.LoanReturnDTO;
+import com.phroque.livrosapi.dto.LoanReturnResultDTO;
+import com.phroque.livrosapi.dto.ReturnedLoanDTO;
 import com.phroque.livrosapi.exception.BusinessException;
 import com.phroque.livrosapi.model.entity.Book;
 import com.phroque.livrosapi.model.entity.Loan;
 import com.phroque.livrosapi.services.BookService;
+import com.phroque.livrosapi.services.LoanBatchService;
 import com.phroque.livrosapi.services.LoanService;
 
 @ExtendWith(SpringExtension.class)
@@ -50,6 +58,9 @@ public class LoanControllerTest {
 	@MockBean
 	private LoanService loanService;
 	
+	@MockBean
+	private LoanBatchService loanBatchService;
+	
 	@Test
 	@DisplayName("Deve realizar um emprestimo")
 	public void createLoanTest() throws Exception {
@@ -114,6 +125,96 @@ public class LoanControllerTest {
 		mvc.perform(request)
 			.andExpect(status().isBadRequest())
 			.andExpect(jsonPath("errors", Matchers.hasSize(1)))
-			.andExpect(jsonPath("errors[0]").value("Book not found for passed isbn"));
+			.andExpect(jsonPath("errors[0]").value("Book already loaned"));
+	}
+	
+	@Test
+	@DisplayName("Deve devolver um emprestimo")
+	public void returnLoanTest() throws Exception {
+		BDDMockito.given(loanService.returnLoans(List.of(1l)))
+			.willReturn(LoanReturnResultDTO.builder().returned(List.of(1l)).build());
+		
+		mvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(ReturnedLoanDTO.builder().returned(true).build())))
+			.andExpect(status().isOk());
+	}
+	
+	@Test
+	@DisplayName("Deve retornar 404 ao devolver um emprestimo inexistente")
+	public void returnInexistentLoanTest() throws Exception {
+		BDDMockito.given(loanService.returnLoans(List.of(1l)))
+			.willReturn(LoanReturnResultDTO.builder().notFound(List.of(1l)).build());
+		
+		mvc.perform(MockMvcRequestBuilders.patch(LOAN_API.concat("/1"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(ReturnedLoanDTO.builder().returned(true).build())))
+			.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	@DisplayName("Deve devolver empréstimos em lote reportando os já devolvidos e inexistentes")
+	public void returnLoansTest() throws Exception {
+		BDDMockito.given(loanService.returnLoans(List.of(1l, 2l, 3l)))
+			.willReturn(LoanReturnResultDTO.builder().returned(List.of(1l)).alreadyReturned(List.of(2l)).notFound(List.of(3l)).build());
+		
+		mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/returns"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(LoanReturnDTO.builder().ids(List.of(1l, 2l, 3l)).build())))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("returned[0]").value(1))
+			.andExpect(jsonPath("alreadyReturned[0]").value(2))
+			.andExpect(jsonPath("notFound[0]").value(3));
+	}
+	
+	@Test
+	@DisplayName("Deve criar empréstimos em lote reportando cada item")
+	public void createLoansBatchTest() throws Exception {
+		List<LoanDTO> loans = List.of(LoanDTO.builder().isbn("123").customer("Fulano").build(), LoanDTO.builder().isbn("456").customer("Ciclano").build());
+		BDDMockito.given(loanBatchService.createLoans(Mockito.eq(loans), Mockito.any(LocalDate.class)))
+			.willReturn(LoanBatchResultDTO.builder().created(1).rejected(1)
+					.items(List.of(LoanBatchItemDTO.builder().isbn("123").loanId(1l).build(),
+							LoanBatchItemDTO.builder().isbn("456").error("Book not found for passed isbn").build()))
+					.build());
+		
+		mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(LoanBatchDTO.builder().loans(loans).build())))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("created").value(1))
+			.andExpect(jsonPath("rejected").value(1))
+			.andExpect(jsonPath("items[0].loanId").value(1))
+			.andExpect(jsonPath("items[1].error").value("Book not found for passed isbn"));
+	}
+	
+	@Test
+	@DisplayName("Deve rejeitar um lote de empréstimos vazio")
+	public void createEmptyLoansBatchTest() throws Exception {
+		mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(LoanBatchDTO.builder().loans(List.of()).build())))
+			.andExpect(status().isBadRequest());
+		
+		Mockito.verifyNoInteractions(loanBatchService);
+	}
+	
+	@Test
+	@DisplayName("Deve retornar erro de validação para cliente vazio ou maior que a coluna")
+	public void invalidCustomerCreateLoanTest() throws Exception {
+		LoanDTO blank = LoanDTO.builder().isbn("123").customer(" ").build();
+		LoanDTO oversized = LoanDTO.builder().isbn("123").customer("F".repeat(Loan.CUSTOMER_LENGTH + 1)).build();
+		
+		mvc.perform(MockMvcRequestBuilders.post(LOAN_API)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(blank)))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("errors", Matchers.hasSize(1)));
+		mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/batch"))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(new ObjectMapper().writeValueAsString(LoanBatchDTO.builder().loans(List.of(oversized)).build())))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("errors", Matchers.hasSize(1)));
+		
+		Mockito.verifyNoInteractions(loanService, loanBatchService);
 	}
 }
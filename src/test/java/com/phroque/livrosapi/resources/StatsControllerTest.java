@@ -0,0 +1,85 @@
+package com.phroque.livrosapi.resources;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.phroque.livrosapi.dto.StatsRebuildResultDTO;
+import com.phroque.livrosapi.services.CatalogStats;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = StatsController.class)
+@AutoConfigureMockMvc
+public class StatsControllerTest {
+	
+	static String STATS_API = "/api/stats";
+
+	@Autowired
+	MockMvc mvc;
+	
+	@MockBean
+	CatalogStats stats;
+	
+	@Test
+	@DisplayName("Deve retornar os totais do catálogo")
+	public void totalsTest() throws Exception {
+		BDDMockito.given(stats.getBooks()).willReturn(10l);
+		BDDMockito.given(stats.getAuthors()).willReturn(4l);
+		BDDMockito.given(stats.getLoans()).willReturn(7l);
+		BDDMockito.given(stats.getActiveLoans()).willReturn(2l);
+		
+		mvc.perform(MockMvcRequestBuilders.get(STATS_API))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("books").value(10))
+			.andExpect(jsonPath("authors").value(4))
+			.andExpect(jsonPath("loans").value(7))
+			.andExpect(jsonPath("activeLoans").value(2));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar os autores e livros do topo do ranking")
+	public void topTest() throws Exception {
+		BDDMockito.given(stats.topAuthors(2)).willReturn(List.of(Map.entry("Fulano", 3l), Map.entry("Ciclano", 1l)));
+		BDDMockito.given(stats.topBooks(100)).willReturn(List.of(Map.entry(5l, 9l)));
+		BDDMockito.given(stats.getBooksOf("Fulano")).willReturn(3l);
+		
+		mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("/authors")).param("top", "2"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("[0].author").value("Fulano"))
+			.andExpect(jsonPath("[1].books").value(1));
+		mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("/books")).param("top", "1000"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("[0].bookId").value(5))
+			.andExpect(jsonPath("[0].loans").value(9));
+		mvc.perform(MockMvcRequestBuilders.get(STATS_API.concat("/authors")).param("name", "Fulano"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("books").value(3));
+	}
+	
+	@Test
+	@DisplayName("Deve reconstruir as estatísticas reportando as correções")
+	public void rebuildTest() throws Exception {
+		BDDMockito.given(stats.rebuild()).willReturn(StatsRebuildResultDTO.builder().correctedAuthors(1).build());
+		
+		mvc.perform(MockMvcRequestBuilders.post(STATS_API.concat("/rebuild")))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("correctedAuthors").value(1))
+			.andExpect(jsonPath("correctedTotals").value(false));
+	}
+}
@@ -0,0 +1,120 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookCacheTest {
+
+	BookCache cache;
+	
+	@MockBean
+	BookRepository repository;
+	
+	@BeforeEach
+	public void setUp() {
+		this.cache = new BookCache(repository, 100, Duration.ofMinutes(1));
+	}
+	
+	private Book createValidBook() {
+		return Book.builder().id(1l).isbn("123").author("Fulano").title("As aventuras").build();
+	}
+	
+	@Test
+	@DisplayName("Deve consultar a base apenas uma vez para o mesmo id")
+	public void readThroughTest() {
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(createValidBook()));
+		
+		Book first = cache.getById(1l).get();
+		first.setTitle("alterado");
+		Book second = cache.getById(1l).get();
+		
+		assertThat(second.getTitle()).isEqualTo("As aventuras");
+		Mockito.verify(repository, Mockito.times(1)).findById(1l);
+		assertThat(cache.getBookStats().hitCount()).isEqualTo(1);
+	}
+	
+	@Test
+	@DisplayName("Não deve guardar livros inexistentes")
+	public void notFoundTest() {
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.empty());
+		
+		assertThat(cache.getById(1l)).isEmpty();
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(createValidBook()));
+		assertThat(cache.getById(1l)).isPresent();
+	}
+	
+	@Test
+	@DisplayName("Deve resolver o isbn pelo id em cache e descartar mapeamentos obsoletos")
+	public void isbnLookupTest() {
+		Book book = createValidBook();
+		Mockito.when(repository.findByIsbn("123")).thenReturn(Optional.of(book));
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(book));
+		
+		assertThat(cache.getByIsbn("123")).isPresent();
+		assertThat(cache.getByIsbn("123")).isPresent();
+		assertThat(cache.getByIsbn("123")).isPresent();
+		Mockito.verify(repository, Mockito.times(1)).findByIsbn("123");
+		Mockito.verify(repository, Mockito.times(1)).findById(1l);
+		
+		cache.invalidate(book);
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.empty());
+		Mockito.when(repository.findByIsbn("123")).thenReturn(Optional.empty());
+		
+		assertThat(cache.getByIsbn("123")).isEmpty();
+	}
+	
+	@Test
+	@DisplayName("Deve invalidar o livro ao atualizar")
+	public void invalidateTest() {
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(createValidBook()));
+		cache.getById(1l);
+		
+		Book updated = createValidBook();
+		updated.setTitle("Novo titulo");
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(updated));
+		cache.invalidate(updated);
+		
+		assertThat(cache.getById(1l).get().getTitle()).isEqualTo("Novo titulo");
+	}
+	
+	@Test
+	@DisplayName("Não deve guardar a leitura antiga que concorreu com uma atualização")
+	public void racingReadTest() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.when(repository.findById(1l)).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await(5, TimeUnit.SECONDS);
+			return Optional.of(createValidBook());
+		});
+		
+		CompletableFuture<Optional<Book>> read = CompletableFuture.supplyAsync(() -> cache.getById(1l));
+		loading.await(5, TimeUnit.SECONDS);
+		CompletableFuture<Void> write = CompletableFuture.runAsync(() -> cache.invalidate(createValidBook()));
+		Thread.sleep(100);
+		release.countDown();
+		read.get(5, TimeUnit.SECONDS);
+		write.get(5, TimeUnit.SECONDS);
+		
+		assertThat(cache.books().getIfPresent(1l)).isNull();
+	}
+}
@@ -0,0 +1,124 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.dto.BookDeletionResultDTO;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "livros.book-deletion.batch-size=2")
+public class BookDeletionServiceTest {
+
+	@Autowired
+	BookDeletionService service;
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	LoanService loanService;
+
+	@Autowired
+	BookRepository repository;
+
+	@Autowired
+	IsbnIndex isbnIndex;
+
+	@Autowired
+	CatalogStats stats;
+
+	@Test
+	@DisplayName("Deve deletar em lotes os livros do filtro mantendo os emprestados")
+	public void deleteByFilterTest() {
+		for(int i = 0; i < 5; i++) {
+			bookService.save(Book.builder().title("Descarte " + i).author("Autor descartado").isbn("discard-" + i).build());
+		}
+		Book kept = bookService.save(Book.builder().title("Mantido").author("Outro autor").isbn("discard-kept").build());
+		Book loaned = bookService.getBookByIsbn("discard-2").get();
+		loanService.save(Loan.builder().book(loaned).customer("Fulano").loanDate(LocalDate.now()).build());
+
+		BookDeletionResultDTO result = service.deleteAll(Book.builder().author("descartado").build());
+
+		assertThat(result.getDeleted()).isEqualTo(4);
+		assertThat(result.getInUse()).containsExactly(loaned.getId());
+		assertThat(repository.findIdentities(List.of("discard-0", "discard-1", "discard-2", "discard-3", "discard-4", "discard-kept")))
+			.extracting(identity -> identity.getIsbn())
+			.containsExactlyInAnyOrder("discard-2", "discard-kept");
+		assertThat(bookService.getBookByIsbn("discard-0")).isEmpty();
+		assertThat(bookService.getById(kept.getId())).isPresent();
+	}
+
+	@Test
+	@DisplayName("Deve deletar em lotes os livros pelos ids reportando os inexistentes")
+	public void deleteByIdsTest() {
+		Book first = bookService.save(Book.builder().title("Primeiro").author("Fulano").isbn("delete-id-1").build());
+		Book second = bookService.save(Book.builder().title("Segundo").author("Fulano").isbn("delete-id-2").build());
+		Book third = bookService.save(Book.builder().title("Terceiro").author("Fulano").isbn("delete-id-3").build());
+
+		BookDeletionResultDTO result = service.deleteAll(List.of(third.getId(), first.getId(), Long.MAX_VALUE, second.getId(), first.getId()));
+
+		assertThat(result.getDeleted()).isEqualTo(3);
+		assertThat(result.getNotFound()).containsExactly(Long.MAX_VALUE);
+		assertThat(result.getInUse()).isEmpty();
+		assertThat(repository.findAllById(List.of(first.getId(), second.getId(), third.getId()))).isEmpty();
+		assertThat(isbnIndex.mightContain("delete-id-1")).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve contar uma única vez os livros deletados por exclusões concorrentes")
+	public void concurrentDeletionTest() throws Exception {
+		List<Long> ids = List.of(
+				bookService.save(Book.builder().title("Disputado 1").author("Autor disputado").isbn("race-1").build()).getId(),
+				bookService.save(Book.builder().title("Disputado 2").author("Autor disputado").isbn("race-2").build()).getId(),
+				bookService.save(Book.builder().title("Disputado 3").author("Autor disputado").isbn("race-3").build()).getId());
+		long books = stats.getBooks();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<CompletableFuture<BookDeletionResultDTO>> results = List.of(
+					CompletableFuture.supplyAsync(() -> { await(start); return service.deleteAll(ids); }, executor),
+					CompletableFuture.supplyAsync(() -> { await(start); return service.deleteAll(ids); }, executor));
+			start.countDown();
+
+			long deleted = 0;
+			long notFound = 0;
+			for(CompletableFuture<BookDeletionResultDTO> result : results) {
+				deleted += result.get(10, TimeUnit.SECONDS).getDeleted();
+				notFound += result.get().getNotFound().size();
+			}
+			assertThat(deleted).isEqualTo(3);
+			assertThat(notFound).isEqualTo(3);
+			assertThat(stats.getBooks()).isEqualTo(books - 3);
+			assertThat(stats.getBooksOf("Autor disputado")).isZero();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class BookExportServiceTest {
+
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Autowired
+	BookRepository repository;
+	
+	@Test
+	@DisplayName("Deve percorrer os livros filtrados desanexando cada um da sessão")
+	public void exportTest() {
+		entityManager.persist(Book.builder().title("As aventuras").author("Fulano").isbn("1").build());
+		entityManager.persist(Book.builder().title("O mar").author("Ciclano").isbn("2").build());
+		entityManager.persist(Book.builder().title("Aventuras no mar").author("Beltrano").isbn("3").build());
+		entityManager.flush();
+		entityManager.clear();
+		BookExportService service = new BookExportServiceImpl(repository, 2);
+		List<Book> exported = new ArrayList<>();
+		List<Boolean> managed = new ArrayList<>();
+		
+		service.export(Book.builder().title("aventuras").build(), book -> exported.add(book));
+		exported.forEach(book -> managed.add(entityManager.getEntityManager().contains(book)));
+		
+		assertThat(exported).extracting("isbn").containsExactly("1", "3");
+		assertThat(managed).containsOnly(false);
+	}
+}
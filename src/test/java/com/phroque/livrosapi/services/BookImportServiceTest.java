@@ -0,0 +1,108 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import org.springframework.data.domain.PageRequest;
+
+import com.phroque.livrosapi.dto.BookImportResultDTO;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "livros.import.batch-size=2")
+public class BookImportServiceTest {
+
+	@Autowired
+	BookImportService service;
+	
+	@Autowired
+	BookRepository repository;
+	
+	@Autowired
+	BookService bookService;
+	
+	@Test
+	@DisplayName("Deve importar livros em ndjson reportando as linhas rejeitadas")
+	public void importNdjsonTest() throws Exception {
+		String body = "{\"title\":\"A\",\"author\":\"Fulano\",\"isbn\":\"imp-1\"}\n"
+				+ "{\"title\":\"B\",\"author\":\"Fulano\",\"isbn\":\"imp-2\"}\n"
+				+ "\n"
+				+ "{\"title\":\"C\",\"author\":\"Fulano\",\"isbn\":\"imp-1\"}\n"
+				+ "{\"title\":\"\",\"author\":\"Fulano\",\"isbn\":\"imp-3\"}\n"
+				+ "{invalid\n"
+				+ "{\"title\":\"D\",\"author\":\"Fulano\",\"isbn\":\"imp-4\"}\n";
+		
+		BookImportResultDTO result = service.importBooks(stream(body), BookImportFormat.NDJSON);
+		
+		assertThat(result.getTotal()).isEqualTo(6);
+		assertThat(result.getImported()).isEqualTo(3);
+		assertThat(result.getRejected()).isEqualTo(3);
+		assertThat(result.getRejectedRows()).extracting("line").containsExactlyInAnyOrder(4l, 5l, 6l);
+		assertThat(repository.existsByIsbn("imp-4")).isTrue();
+		assertThat(repository.existsByIsbn("imp-3")).isFalse();
+	}
+	
+	@Test
+	@DisplayName("Deve importar livros em csv com cabeçalho")
+	public void importCsvTest() throws Exception {
+		String body = "isbn,title,author\n"
+				+ "csv-1,\"Aventuras, volume 1\",Fulano\n"
+				+ "csv-2,\"O \"\"livro\"\"\",Ciclano\n"
+				+ "csv-3,,Beltrano\n";
+		
+		BookImportResultDTO result = service.importBooks(stream(body), BookImportFormat.CSV);
+		
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getRejectedRows()).hasSize(1);
+		assertThat(result.getRejectedRows().get(0).getLine()).isEqualTo(4);
+		assertThat(result.getRejectedRows().get(0).getErrors()).containsExactly("title must not be blank");
+		assertThat(repository.findByIsbn("csv-1").get().getTitle()).isEqualTo("Aventuras, volume 1");
+		assertThat(repository.findByIsbn("csv-2").get().getTitle()).isEqualTo("O \"livro\"");
+	}
+	
+	@Test
+	@DisplayName("Deve indexar para a busca os livros inseridos um a um após falha do lote")
+	public void importFallbackIndexedTest() throws Exception {
+		// saved around the service, so the isbn index does not know it and the chunk's batch fails
+		repository.save(Book.builder().title("Existente").author("Fulano").isbn("fb-1").build());
+		String body = "{\"title\":\"Repetido\",\"author\":\"Fulano\",\"isbn\":\"fb-1\"}\n"
+				+ "{\"title\":\"Recuperado Zebrafish\",\"author\":\"Fulano\",\"isbn\":\"fb-2\"}\n";
+		
+		BookImportResultDTO result = service.importBooks(stream(body), BookImportFormat.NDJSON);
+		
+		assertThat(result.getImported()).isEqualTo(1);
+		assertThat(result.getRejectedRows()).extracting("line").containsExactly(1l);
+		assertThat(bookService.find(Book.builder().title("zebrafish").build(), PageRequest.of(0, 10)).getContent())
+			.extracting("isbn").containsExactly("fb-2");
+	}
+	
+	@Test
+	@DisplayName("Deve limitar as linhas rejeitadas listadas e contar todas")
+	public void rejectedRowsCapTest() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for(int i = 0; i < BookImportResultDTO.MAX_REJECTED_ROWS + 5; i++) {
+			body.append("{invalid\n");
+		}
+		
+		BookImportResultDTO result = service.importBooks(stream(body.toString()), BookImportFormat.NDJSON);
+		
+		assertThat(result.getRejected()).isEqualTo(BookImportResultDTO.MAX_REJECTED_ROWS + 5);
+		assertThat(result.getRejectedRows()).hasSize(BookImportResultDTO.MAX_REJECTED_ROWS);
+	}
+	
+	private ByteArrayInputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,194 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.phroque.livrosapi.config.ReadWriteRoutingDataSource;
+import com.phroque.livrosapi.model.entity.Book;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BookReadCoalescerTest {
+
+	static final int WAITERS = 8;
+
+	AtomicInteger calls = new AtomicInteger();
+	CountDownLatch release = new CountDownLatch(1);
+
+	private <T> Supplier<T> blockingRead(Supplier<T> result) {
+		return () -> {
+			calls.incrementAndGet();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return result.get();
+		};
+	}
+
+	/**
+	 * Starts the leader, then the waiters, and returns once every waiter is
+	 * parked on the leader's call.
+	 */
+	private <T> List<CompletableFuture<T>> concurrently(Supplier<T> read) throws InterruptedException {
+		List<CompletableFuture<T>> results = new ArrayList<>();
+		List<Thread> waiters = new ArrayList<>();
+		results.add(start(read, new ArrayList<>()));
+		while(calls.get() == 0) {
+			Thread.sleep(1);
+		}
+		for(int i = 0; i < WAITERS; i++) {
+			results.add(start(read, waiters));
+		}
+		while(!waiters.stream().allMatch(thread -> thread.getState() == Thread.State.TIMED_WAITING)) {
+			Thread.sleep(1);
+		}
+		return results;
+	}
+
+	private <T> CompletableFuture<T> start(Supplier<T> read, List<Thread> threads) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		Thread thread = new Thread(() -> {
+			try {
+				result.complete(read.get());
+			} catch (RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		});
+		threads.add(thread);
+		thread.start();
+		return result;
+	}
+
+	@Test
+	@DisplayName("Deve compartilhar uma única leitura entre buscas idênticas concorrentes")
+	public void sharedReadTest() throws Exception {
+		BookReadCoalescer reads = new BookReadCoalescer(Duration.ofSeconds(5));
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		reads.bindTo(registry);
+		Page<Book> page = new PageImpl<>(List.of(Book.builder().id(1l).title("Popular").build()));
+
+		List<CompletableFuture<Page<Book>>> results = concurrently(() -> reads.find(
+				Book.builder().title("POPULAR").build(), PageRequest.of(0, 10), blockingRead(() -> page)));
+		release.countDown();
+
+		for(CompletableFuture<Page<Book>> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(page);
+		}
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(registry.get("livros.book.reads.saved").tag("read", "find").functionCounter().count()).isEqualTo(WAITERS);
+	}
+
+	@Test
+	@DisplayName("Deve entregar uma cópia do livro a cada leitor")
+	public void copyPerCallerTest() throws Exception {
+		BookReadCoalescer reads = new BookReadCoalescer(Duration.ofSeconds(5));
+		Book book = Book.builder().id(1l).title("Popular").build();
+
+		List<CompletableFuture<Optional<Book>>> results = concurrently(() -> reads.getById(1l, blockingRead(() -> Optional.of(book))));
+		release.countDown();
+
+		List<Book> books = new ArrayList<>();
+		for(CompletableFuture<Optional<Book>> result : results) {
+			books.add(result.get(5, TimeUnit.SECONDS).get());
+		}
+		assertThat(books).allMatch(copy -> copy != book && copy.getTitle().equals("Popular"));
+		assertThat(books.get(0)).isNotSameAs(books.get(1));
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve propagar o erro da leitura a todos que aguardavam")
+	public void errorPropagationTest() throws Exception {
+		BookReadCoalescer reads = new BookReadCoalescer(Duration.ofSeconds(5));
+		QueryTimeoutException error = new QueryTimeoutException("timeout");
+
+		List<CompletableFuture<Optional<Book>>> results = concurrently(() -> reads.getByIsbn("123", blockingRead(() -> { throw error; })));
+		release.countDown();
+
+		for(CompletableFuture<Optional<Book>> result : results) {
+			assertThat(result).failsWithin(5, TimeUnit.SECONDS).withThrowableOfType(Exception.class).withCause(error);
+		}
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(reads.getSaved()).isEqualTo(WAITERS);
+	}
+
+	@Test
+	@DisplayName("Deve limitar a espera e fazer a própria leitura quando ela se esgota")
+	public void boundedWaitTest() throws Exception {
+		BookReadCoalescer reads = new BookReadCoalescer(Duration.ofMillis(50));
+		CompletableFuture<Optional<Book>> slow = start(
+				() -> reads.getById(1l, blockingRead(() -> Optional.of(Book.builder().id(1l).title("Lenta").build()))), new ArrayList<>());
+		while(calls.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		Optional<Book> own = reads.getById(1l, () -> Optional.of(Book.builder().id(1l).title("Própria").build()));
+		release.countDown();
+
+		assertThat(own.get().getTitle()).isEqualTo("Própria");
+		assertThat(slow.get(5, TimeUnit.SECONDS).get().getTitle()).isEqualTo("Lenta");
+		assertThat(reads.getSaved()).isZero();
+	}
+
+	@Test
+	@DisplayName("Não deve juntar uma leitura iniciada antes de uma escrita")
+	public void invalidateTest() throws Exception {
+		BookReadCoalescer reads = new BookReadCoalescer(Duration.ofSeconds(5));
+		CompletableFuture<Optional<Book>> before = start(
+				() -> reads.getById(1l, blockingRead(() -> Optional.of(Book.builder().id(1l).title("Antiga").build()))), new ArrayList<>());
+		while(calls.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		reads.invalidate();
+		Optional<Book> after = reads.getById(1l, () -> Optional.of(Book.builder().id(1l).title("Nova").build()));
+		release.countDown();
+
+		assertThat(after.get().getTitle()).isEqualTo("Nova");
+		assertThat(before.get(5, TimeUnit.SECONDS).get().getTitle()).isEqualTo("Antiga");
+	}
+
+	@Test
+	@DisplayName("Não deve juntar um cliente fixado no primário a uma leitura da réplica")
+	public void routeTest() throws Exception {
+		BookReadCoalescer reads = new BookReadCoalescer(Duration.ofSeconds(5));
+		Page<Book> stale = new PageImpl<>(List.of(Book.builder().id(1l).title("Antiga").build()));
+		Page<Book> fresh = new PageImpl<>(List.of(Book.builder().id(1l).title("Nova").build()));
+		CompletableFuture<Page<Book>> replica = start(
+				() -> reads.find(Book.builder().build(), PageRequest.of(0, 10), blockingRead(() -> stale)), new ArrayList<>());
+		while(calls.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		Page<Book> primary;
+		ReadWriteRoutingDataSource.pinToPrimary();
+		try {
+			primary = reads.find(Book.builder().build(), PageRequest.of(0, 10), () -> fresh);
+		} finally {
+			ReadWriteRoutingDataSource.unpin();
+		}
+		release.countDown();
+
+		assertThat(primary).isSameAs(fresh);
+		assertThat(replica.get(5, TimeUnit.SECONDS)).isSameAs(stale);
+		assertThat(reads.getSaved()).isZero();
+	}
+}
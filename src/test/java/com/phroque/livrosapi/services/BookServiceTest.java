@@ -5,6 +5,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +28,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import com.phroque.livrosapi.exception.BusinessException;
 import com.phroque.livrosapi.model.entity.Book;
 import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.LoanRepository;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -39,7 +41,7 @@ public class BookServiceTest {
 	
 	@BeforeEach
 	public void setUp() {
-		this.service = new BookServiceImpl(repository);
+		this.service = new BookServiceImpl(repository, new IsbnIndex(repository, 1000, 0.01), new BookTextIndex(repository, 10000), new BookCache(repository, 100, Duration.ofMinutes(1)), new CatalogStats(repository, Mockito.mock(LoanRepository.class)), new BookReadCoalescer(Duration.ofSeconds(1)));
 	}
 	
 	@Test
@@ -119,10 +121,11 @@ public class BookServiceTest {
 	@DisplayName("Deve deletar um livro.")
 	public void deleteBookTest() {
 		Book book = Book.builder().id(1l).build();
+		Mockito.when(repository.remove(1l, null)).thenReturn(Optional.of(book));
 		
 		org.junit.jupiter.api.Assertions.assertDoesNotThrow(() -> service.delete(book));
 		
-		Mockito.verify(repository, Mockito.times(1)).delete(book);
+		Mockito.verify(repository, Mockito.times(1)).remove(1l, null);
 	}
 	
 	@Test
@@ -132,7 +135,7 @@ public class BookServiceTest {
 		
 		org.junit.jupiter.api.Assertions.assertThrows(IllegalArgumentException.class, () -> service.delete(book));
 		
-		Mockito.verify(repository, Mockito.never()).delete(book);
+		Mockito.verify(repository, Mockito.never()).remove(Mockito.any(), Mockito.any());
 	}
 	
 	@Test
@@ -168,6 +171,50 @@ public class BookServiceTest {
 	}
 	
 	
+	@Test
+	@DisplayName("Deve deletar um livro pelo id sem carregá-lo")
+	public void deleteBookByIdTest() {
+		Mockito.when(repository.remove(1l, null)).thenReturn(Optional.of(Book.builder().id(1l).isbn("123").author("Fulano").build()));
+		
+		assertThat(service.deleteById(1l, null)).isTrue();
+		assertThat(service.deleteById(2l, null)).isFalse();
+		
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+		Mockito.verify(repository, Mockito.never()).delete(Mockito.any(Book.class));
+	}
+	
+	@Test
+	@DisplayName("Deve atualizar parcialmente um livro sem carregá-lo")
+	public void bookPatchTest() {
+		Book changes = Book.builder().id(1l).author("José").version(2l).build();
+		
+		Mockito.when(repository.patch(1l, 2l, null, "José")).thenReturn(Optional.of(Book.builder().id(1l).author("Fulano").build()));
+		
+		assertThat(service.patch(changes)).isTrue();
+		assertThat(service.patch(changes.toBuilder().id(2l).build())).isFalse();
+		
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+		Mockito.verify(repository, Mockito.never()).save(Mockito.any(Book.class));
+	}
+	
+	@Test
+	@DisplayName("Deve substituir título e autor de um livro sem carregá-lo e retornar a nova versão")
+	public void bookReplaceTest() {
+		Book book = Book.builder().id(1l).title("Novo titulo").author("José").build();
+		
+		Mockito.when(repository.patch(1l, null, "Novo titulo", "José"))
+			.thenReturn(Optional.of(Book.builder().id(1l).isbn("123").title("As aventuras").author("Fulano").version(2l).build()));
+		
+		Book replaced = service.replace(book).get();
+		
+		assertThat(replaced.getIsbn()).isEqualTo("123");
+		assertThat(replaced.getTitle()).isEqualTo("Novo titulo");
+		assertThat(replaced.getAuthor()).isEqualTo("José");
+		assertThat(replaced.getVersion()).isEqualTo(3l);
+		assertThat(service.replace(book.toBuilder().id(2l).build())).isEmpty();
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+	
 	@Test
 	@DisplayName("Deve filtrar livros pelas propriedades")
 	public void findBookTest() {
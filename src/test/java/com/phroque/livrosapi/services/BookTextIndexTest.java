@@ -0,0 +1,132 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class BookTextIndexTest {
+
+	BookTextIndex index;
+	
+	@MockBean
+	BookRepository repository;
+	
+	@BeforeEach
+	public void setUp() {
+		this.index = new BookTextIndex(repository, 2);
+		Mockito.when(repository.streamTextFields()).thenReturn(Stream.of(
+				new Object[] { 1l, "As Aventuras", "Fulano" },
+				new Object[] { 2l, "Aventuras no mar", "Ciclano" },
+				new Object[] { 3l, "O mar", "Fulano de Tal" }));
+		index.load();
+	}
+	
+	@Test
+	@DisplayName("Deve resolver os candidatos de um termo ignorando maiusculas")
+	public void candidatesTest() {
+		assertThat(index.candidates(Book.builder().title("AVENTURA").build())).containsExactly(1l, 2l);
+		assertThat(index.candidates(Book.builder().title("ventura").author("ulano").build())).containsExactly(1l);
+		assertThat(index.candidates(Book.builder().title("inexistente").build())).isEmpty();
+	}
+	
+	@Test
+	@DisplayName("Não deve usar o indice para termos curtos ou pouco seletivos")
+	public void notSelectiveTest() {
+		assertThat(index.canSearch(Book.builder().title("ma").build())).isFalse();
+		assertThat(index.candidates(Book.builder().title(" ").author("ano").build())).isNull();
+	}
+	
+	@Test
+	@DisplayName("Deve manter o indice atualizado ao salvar e remover livros")
+	public void keepInSyncTest() {
+		Book book = Book.builder().id(4l).title("Dom Casmurro").author("Machado").build();
+		
+		index.add(book);
+		assertThat(index.candidates(Book.builder().title("casmurro").build())).containsExactly(4l);
+		
+		index.remove(book);
+		assertThat(index.candidates(Book.builder().title("casmurro").build())).isEmpty();
+	}
+	
+	@Test
+	@DisplayName("Deve indexar na atualização os livros gravados, renomeados e removidos por outra instância")
+	public void refreshTest() {
+		Mockito.when(repository.streamTextFields()).thenReturn(Stream.of(
+				new Object[] { 1l, "As Aventuras", "Fulano" },
+				new Object[] { 2l, "Navegando", "Ciclano" },
+				new Object[] { 3l, "O mar", "Fulano de Tal" },
+				new Object[] { 5l, "Dom Casmurro", "Machado" }));
+		index.add(Book.builder().id(6l).title("Memórias Póstumas").author("Machado").build());
+		
+		index.refresh();
+		
+		assertThat(index.candidates(Book.builder().title("casmurro").build())).containsExactly(5l);
+		assertThat(index.candidates(Book.builder().title("navegando").build())).containsExactly(2l);
+		assertThat(index.candidates(Book.builder().title("aventuras").build())).containsExactly(1l);
+		assertThat(index.candidates(Book.builder().author("machado").build())).containsExactly(5l);
+	}
+	
+	@Test
+	@DisplayName("Deve buscar pelos ids candidatos sem varrer a tabela")
+	@SuppressWarnings("unchecked")
+	public void findByCandidatesTest() {
+		BookService service = new BookServiceImpl(repository, new IsbnIndex(repository, 1000, 0.01), index, new BookCache(repository, 100, Duration.ofMinutes(1)), new CatalogStats(repository, Mockito.mock(LoanRepository.class)), new BookReadCoalescer(Duration.ofSeconds(1)));
+		Pageable pageRequest = PageRequest.of(0, 10);
+		List<Book> list = new ArrayList<>();
+		list.add(Book.builder().id(1l).title("As Aventuras").build());
+		Mockito.when(repository.findAll(Mockito.any(Specification.class), Mockito.eq(pageRequest.getSort())))
+			.thenReturn(list);
+		
+		Page<Book> result = service.find(Book.builder().title("aventuras").author("fulano").build(), pageRequest);
+		Page<Book> empty = service.find(Book.builder().title("inexistente").build(), pageRequest);
+		
+		assertThat(result.getContent()).isEqualTo(list);
+		assertThat(empty.getTotalElements()).isZero();
+		Mockito.verify(repository, Mockito.times(1)).findAll(Mockito.any(Specification.class), Mockito.eq(pageRequest.getSort()));
+		Mockito.verify(repository, Mockito.never()).findAll(Mockito.any(Specification.class), Mockito.any(Pageable.class));
+		Mockito.verify(repository, Mockito.never()).findAll(Mockito.any(Example.class), Mockito.any(Pageable.class));
+	}
+	
+	@Test
+	@DisplayName("Deve paginar os candidatos e contar o total sem nova consulta")
+	@SuppressWarnings("unchecked")
+	public void pageCandidatesTest() {
+		BookService service = new BookServiceImpl(repository, new IsbnIndex(repository, 1000, 0.01), index, new BookCache(repository, 100, Duration.ofMinutes(1)), new CatalogStats(repository, Mockito.mock(LoanRepository.class)), new BookReadCoalescer(Duration.ofSeconds(1)));
+		Pageable pageRequest = PageRequest.of(1, 1);
+		List<Book> list = new ArrayList<>();
+		list.add(Book.builder().id(1l).title("As Aventuras").build());
+		list.add(Book.builder().id(2l).title("Aventuras no mar").build());
+		Mockito.when(repository.findAll(Mockito.any(Specification.class), Mockito.eq(pageRequest.getSort())))
+			.thenReturn(list);
+		
+		Page<Book> result = service.find(Book.builder().title("aventuras").build(), pageRequest);
+		
+		assertThat(result.getContent()).containsExactly(list.get(1));
+		assertThat(result.getTotalElements()).isEqualTo(2);
+		Mockito.verify(repository, Mockito.never()).count(Mockito.any(Specification.class));
+	}
+}
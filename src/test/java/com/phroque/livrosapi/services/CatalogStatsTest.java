@@ -0,0 +1,92 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.dto.LoanDTO;
+import com.phroque.livrosapi.dto.StatsRebuildResultDTO;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.BookRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class CatalogStatsTest {
+
+	@Autowired
+	CatalogStats stats;
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	LoanService loanService;
+
+	@Autowired
+	LoanBatchService loanBatchService;
+
+	@Autowired
+	BookRepository bookRepository;
+
+	@Test
+	@DisplayName("Deve manter as estatísticas do catálogo a cada escrita e conferi-las na reconstrução")
+	public void incrementalStatsTest() {
+		stats.rebuild();
+		long books = stats.getBooks();
+		long loans = stats.getLoans();
+		long activeLoans = stats.getActiveLoans();
+
+		Book first = bookService.save(Book.builder().title("Primeiro").author("Autor estatístico").isbn("stats-1").build());
+		Book second = bookService.save(Book.builder().title("Segundo").author("Autor estatístico").isbn("stats-2").build());
+		Book moved = bookService.save(Book.builder().title("Terceiro").author("Autor estatístico").isbn("stats-3").build());
+		moved.setAuthor("Outro autor estatístico");
+		bookService.update(moved);
+		bookService.patch(Book.builder().id(second.getId()).author("Outro autor estatístico").build());
+		Book removed = bookService.save(Book.builder().title("Removido").author("Autor estatístico").isbn("stats-4").build());
+		bookService.deleteById(removed.getId(), null);
+
+		Loan loan = loanService.save(Loan.builder().book(first).customer("Fulano").loanDate(LocalDate.now()).build());
+		loanService.returnLoans(List.of(loan.getId()));
+		loanBatchService.createLoans(List.of(LoanDTO.builder().isbn("stats-1").customer("Ciclano").build()), LocalDate.now());
+
+		assertThat(stats.getBooks()).isEqualTo(books + 3);
+		assertThat(stats.getBooksOf("Autor estatístico")).isEqualTo(1);
+		assertThat(stats.getBooksOf("Outro autor estatístico")).isEqualTo(2);
+		assertThat(stats.getLoans()).isEqualTo(loans + 2);
+		assertThat(stats.getActiveLoans()).isEqualTo(activeLoans + 1);
+		assertThat(stats.getLoansOf(first.getId())).isEqualTo(2);
+		assertThat(stats.topBooks(1)).containsExactly(Map.entry(first.getId(), 2l));
+
+		StatsRebuildResultDTO result = stats.rebuild();
+		assertThat(result.getCorrectedAuthors()).isZero();
+		assertThat(result.getCorrectedBooks()).isZero();
+		assertThat(result.isCorrectedTotals()).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve incluir na atualização periódica os livros gravados por outra instância")
+	public void refreshTest() {
+		stats.rebuild();
+		long books = stats.getBooks();
+		bookRepository.save(Book.builder().title("Outra instância").author("Autor de outra instância").isbn("stats-5").build());
+
+		assertThat(stats.getBooks()).isEqualTo(books);
+
+		stats.refresh();
+
+		assertThat(stats.getBooks()).isEqualTo(books + 1);
+		assertThat(stats.getBooksOf("Autor de outra instância")).isEqualTo(1);
+	}
+}
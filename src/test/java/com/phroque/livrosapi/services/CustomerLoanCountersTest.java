@@ -0,0 +1,73 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.dto.CustomerLoanStatsDTO;
+import com.phroque.livrosapi.dto.LoanBatchResultDTO;
+import com.phroque.livrosapi.dto.LoanDTO;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class CustomerLoanCountersTest {
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	LoanService loanService;
+
+	@Autowired
+	LoanBatchService loanBatchService;
+
+	@Autowired
+	CustomerLoanCounters counters;
+
+	@Test
+	@DisplayName("Deve manter os contadores do cliente ao emprestar e devolver")
+	public void countersTest() {
+		Book first = bookService.save(Book.builder().title("Primeiro").author("Fulano").isbn("counter-1").build());
+		bookService.save(Book.builder().title("Segundo").author("Fulano").isbn("counter-2").build());
+		bookService.save(Book.builder().title("Terceiro").author("Fulano").isbn("counter-3").build());
+
+		Loan loan = loanService.save(Loan.builder().book(first).customer("Contador").loanDate(LocalDate.now()).build());
+		LoanBatchResultDTO batch = loanBatchService.createLoans(List.of(
+				LoanDTO.builder().isbn("counter-2").customer("Contador").build(),
+				LoanDTO.builder().isbn("counter-3").customer("Contador").build(),
+				LoanDTO.builder().isbn("counter-1").customer("Contador").build()),
+				LocalDate.now());
+		loanService.returnLoans(List.of(loan.getId(), batch.getItems().get(0).getLoanId()));
+		loanService.returnLoans(List.of(loan.getId()));
+
+		CustomerLoanStatsDTO stats = loanService.getCustomerStats("Contador");
+		assertThat(stats.getTotalLoans()).isEqualTo(3);
+		assertThat(stats.getOutstandingLoans()).isEqualTo(1);
+		assertThat(loanService.getCustomerStats("Desconhecido").getTotalLoans()).isZero();
+		assertThat(loanService.findByCustomer("Contador", true, LoanCursor.first(), 10).getContent())
+			.extracting(active -> active.getIsbn())
+			.containsExactly("counter-3");
+	}
+
+	@Test
+	@DisplayName("Deve propagar violações que não sejam a criação concorrente do contador")
+	public void createInvalidCounterTest() {
+		String oversized = "C".repeat(Loan.CUSTOMER_LENGTH + 1);
+
+		assertThrows(DataIntegrityViolationException.class, () -> counters.prepare(List.of(oversized)));
+	}
+}
@@ -0,0 +1,129 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class IsbnIndexTest {
+
+	IsbnIndex index;
+
+	@MockBean
+	BookRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+		this.index = new IsbnIndex(repository, 1000, 0.01);
+	}
+
+	@Test
+	@DisplayName("Deve considerar qualquer isbn como possivel duplicado antes da carga")
+	public void notReadyIndexTest() {
+		assertThat(index.mightContain("123")).isTrue();
+		assertThat(index.getDefinitelyNew()).isZero();
+	}
+
+	@Test
+	@DisplayName("Deve carregar os isbns cadastrados e responder isbns novos sem consultar a base")
+	public void loadedIndexTest() {
+		Mockito.when(repository.streamAllIsbns()).thenReturn(Stream.of("123", "456"));
+
+		index.load();
+
+		assertThat(index.mightContain("123")).isTrue();
+		assertThat(index.mightContain("456")).isTrue();
+		assertThat(index.mightContain("789")).isFalse();
+		assertThat(index.getEntries()).isEqualTo(2);
+		assertThat(index.getDefinitelyNew()).isEqualTo(1);
+		assertThat(index.getPossibleDuplicates()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("Deve remover um isbn do indice")
+	public void removeIsbnTest() {
+		Mockito.when(repository.streamAllIsbns()).thenReturn(Stream.of("123"));
+		index.load();
+
+		index.remove("123");
+
+		assertThat(index.mightContain("123")).isFalse();
+	}
+
+	@Test
+	@DisplayName("Não deve remover do indice o isbn de um livro que não foi deletado")
+	public void deleteMissingBookKeepsIsbnTest() {
+		Mockito.when(repository.streamAllIsbns()).thenReturn(Stream.of("123"));
+		index.load();
+		BookService service = new BookServiceImpl(repository, index, new BookTextIndex(repository, 10000), new BookCache(repository, 100, Duration.ofMinutes(1)), new CatalogStats(repository, Mockito.mock(LoanRepository.class)), new BookReadCoalescer(Duration.ofSeconds(1)));
+		Mockito.when(repository.remove(2l, null)).thenReturn(Optional.empty());
+
+		service.delete(Book.builder().id(2l).isbn("123").build());
+
+		assertThat(index.mightContain("123")).isTrue();
+	}
+
+	@Test
+	@DisplayName("Deve salvar sem consultar a base quando o indice garante que o isbn é novo")
+	public void saveSkipsExistsQueryTest() {
+		Mockito.when(repository.streamAllIsbns()).thenReturn(Stream.empty());
+		index.load();
+		BookService service = new BookServiceImpl(repository, index, new BookTextIndex(repository, 10000), new BookCache(repository, 100, Duration.ofMinutes(1)), new CatalogStats(repository, Mockito.mock(LoanRepository.class)), new BookReadCoalescer(Duration.ofSeconds(1)));
+		Book book = Book.builder().isbn("123").author("Fulano").title("As aventuras").build();
+		Mockito.when(repository.save(book)).thenReturn(Book.builder().id(1l).isbn("123").build());
+
+		service.save(book);
+
+		Mockito.verify(repository, Mockito.never()).existsByIsbn(Mockito.anyString());
+		assertThat(index.mightContain("123")).isTrue();
+	}
+
+	@Test
+	@DisplayName("Deve consultar a base e contabilizar falso positivo quando o isbn pode existir")
+	public void falsePositiveTest() {
+		Mockito.when(repository.streamAllIsbns()).thenReturn(Stream.of("123"));
+		index.load();
+		index.remove("123");
+		index.add("123");
+		BookService service = new BookServiceImpl(repository, index, new BookTextIndex(repository, 10000), new BookCache(repository, 100, Duration.ofMinutes(1)), new CatalogStats(repository, Mockito.mock(LoanRepository.class)), new BookReadCoalescer(Duration.ofSeconds(1)));
+		Book book = Book.builder().isbn("123").build();
+		Mockito.when(repository.existsByIsbn("123")).thenReturn(false);
+		Mockito.when(repository.save(book)).thenReturn(Book.builder().id(1l).isbn("123").build());
+
+		service.save(book);
+
+		Mockito.verify(repository, Mockito.times(1)).existsByIsbn("123");
+		assertThat(index.getFalsePositives()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve lançar erro de negocio quando o isbn existir na base")
+	public void duplicatedIsbnTest() {
+		Mockito.when(repository.streamAllIsbns()).thenReturn(Stream.of("123"));
+		index.load();
+		BookService service = new BookServiceImpl(repository, index, new BookTextIndex(repository, 10000), new BookCache(repository, 100, Duration.ofMinutes(1)), new CatalogStats(repository, Mockito.mock(LoanRepository.class)), new BookReadCoalescer(Duration.ofSeconds(1)));
+		Mockito.when(repository.existsByIsbn("123")).thenReturn(true);
+
+		Throwable exception = org.assertj.core.api.Assertions.catchThrowable(() -> service.save(Book.builder().isbn("123").build()));
+
+		assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Isbn já cadastrado.");
+		assertThat(index.getFalsePositives()).isZero();
+	}
+}
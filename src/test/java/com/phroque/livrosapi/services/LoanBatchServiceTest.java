@@ -0,0 +1,108 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.dto.LoanBatchItemDTO;
+import com.phroque.livrosapi.dto.LoanBatchResultDTO;
+import com.phroque.livrosapi.dto.LoanDTO;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.BookIdentity;
+import com.phroque.livrosapi.model.repository.BookRepository;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class LoanBatchServiceTest {
+
+	@Autowired
+	LoanBatchService service;
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	LoanService loanService;
+
+	@Autowired
+	LoanRepository loanRepository;
+
+	@SpyBean
+	BookRepository bookRepository;
+
+	@Test
+	@DisplayName("Deve criar empréstimos em lote reportando falhas por item")
+	public void createLoansTest() {
+		Book free = bookService.save(Book.builder().title("Livre").author("Fulano").isbn("batch-free").build());
+		Book repeated = bookService.save(Book.builder().title("Repetido").author("Fulano").isbn("batch-repeated").build());
+		Book loaned = bookService.save(Book.builder().title("Emprestado").author("Fulano").isbn("batch-loaned").build());
+		loanService.save(Loan.builder().book(loaned).customer("Beltrano").loanDate(LocalDate.now()).build());
+
+		LoanBatchResultDTO result = service.createLoans(List.of(
+				LoanDTO.builder().isbn("batch-free").customer("Fulano").build(),
+				LoanDTO.builder().isbn("batch-missing").customer("Fulano").build(),
+				LoanDTO.builder().isbn("batch-loaned").customer("Fulano").build(),
+				LoanDTO.builder().isbn("batch-repeated").customer("Fulano").build(),
+				LoanDTO.builder().isbn("batch-repeated").customer("Ciclano").build()),
+				LocalDate.now());
+
+		assertThat(result.getCreated()).isEqualTo(2);
+		assertThat(result.getRejected()).isEqualTo(3);
+		List<LoanBatchItemDTO> items = result.getItems();
+		assertThat(items).extracting(LoanBatchItemDTO::getIsbn)
+			.containsExactly("batch-free", "batch-missing", "batch-loaned", "batch-repeated", "batch-repeated");
+		assertThat(items).extracting(LoanBatchItemDTO::getError)
+			.containsExactly(null, "Book not found for passed isbn", "Book already loaned", null, "Book already loaned");
+
+		Loan created = loanRepository.findById(items.get(0).getLoanId()).get();
+		assertThat(created.getBook().getId()).isEqualTo(free.getId());
+		assertThat(created.getActiveBookId()).isEqualTo(free.getId());
+		assertThat(loanRepository.findById(items.get(3).getLoanId()).get().getBook().getId()).isEqualTo(repeated.getId());
+	}
+
+	@Test
+	@DisplayName("Deve rejeitar só o item cujo livro sumiu entre a busca e a inserção")
+	public void createLoansWithDeletedBookTest() {
+		Book kept = bookService.save(Book.builder().title("Livre").author("Fulano").isbn("batch-kept").build());
+		Mockito.doReturn(List.of(identity(kept.getId(), "batch-kept"), identity(Long.MAX_VALUE, "batch-deleted")))
+			.when(bookRepository).findIdentities(Mockito.anyCollection());
+
+		LoanBatchResultDTO result = service.createLoans(List.of(
+				LoanDTO.builder().isbn("batch-kept").customer("Fulano").build(),
+				LoanDTO.builder().isbn("batch-deleted").customer("Fulano").build()),
+				LocalDate.now());
+
+		assertThat(result.getCreated()).isEqualTo(1);
+		assertThat(result.getItems()).extracting(LoanBatchItemDTO::getError)
+			.containsExactly(null, "Loan rejected by the database");
+		assertThat(loanRepository.findById(result.getItems().get(0).getLoanId())).isPresent();
+	}
+
+	private static BookIdentity identity(Long id, String isbn) {
+		return new BookIdentity() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public String getIsbn() {
+				return isbn;
+			}
+		};
+	}
+}
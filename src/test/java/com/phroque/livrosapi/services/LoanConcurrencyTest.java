@@ -0,0 +1,89 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+public class LoanConcurrencyTest {
+
+	static final int THREADS = 16;
+	static final int ROUNDS = 20;
+
+	@Autowired
+	BookService bookService;
+
+	@Autowired
+	LoanService loanService;
+
+	@Autowired
+	LoanRepository loanRepository;
+
+	@Test
+	@DisplayName("Deve permitir um único emprestimo ativo por livro sob concorrência")
+	public void concurrentLoansOfOneIsbnTest() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		AtomicInteger created = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		long start = System.nanoTime();
+		try {
+			for(int round = 0; round < ROUNDS; round++) {
+				String isbn = "concurrent-" + round;
+				bookService.save(Book.builder().title("Popular").author("Fulano").isbn(isbn).build());
+				CountDownLatch ready = new CountDownLatch(1);
+				List<Future<?>> attempts = new ArrayList<>();
+				for(int i = 0; i < THREADS; i++) {
+					String customer = "customer-" + i;
+					attempts.add(executor.submit(() -> {
+						ready.await();
+						Book book = bookService.getBookByIsbn(isbn).get();
+						try {
+							loanService.save(Loan.builder().book(book).customer(customer).loanDate(LocalDate.now()).build());
+							created.incrementAndGet();
+						} catch (BusinessException e) {
+							rejected.incrementAndGet();
+						}
+						return null;
+					}));
+				}
+				ready.countDown();
+				for(Future<?> attempt : attempts) {
+					attempt.get(10, TimeUnit.SECONDS);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		int attempts = THREADS * ROUNDS;
+		System.out.printf("Loan contention: %d attempts on %d isbns in %.3fs (%.0f attempts/s), %d created, %d rejected%n",
+				attempts, ROUNDS, seconds, attempts / seconds, created.get(), rejected.get());
+
+		assertThat(created.get()).isEqualTo(ROUNDS);
+		assertThat(rejected.get()).isEqualTo(attempts - ROUNDS);
+		assertThat(loanRepository.count()).isGreaterThanOrEqualTo(ROUNDS);
+	}
+}
@@ -0,0 +1,128 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.phroque.livrosapi.dto.LoanReturnResultDTO;
+import com.phroque.livrosapi.exception.BusinessException;
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+import com.phroque.livrosapi.model.repository.LoanReturnState;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LoanServiceTest {
+
+	LoanService service;
+	
+	@MockBean
+	LoanRepository repository;
+	
+	@MockBean
+	CustomerLoanCounters counters;
+	
+	@MockBean
+	CatalogStats stats;
+	
+	@BeforeEach
+	public void setUp() {
+		this.service = new LoanServiceImpl(repository, counters, stats, Mockito.mock(PlatformTransactionManager.class));
+	}
+	
+	private Loan createLoan() {
+		Book book = Book.builder().id(1l).isbn("123").build();
+		return Loan.builder().book(book).customer("Fulano").loanDate(LocalDate.now()).build();
+	}
+	
+	@Test
+	@DisplayName("Deve salvar um emprestimo ativo")
+	public void saveLoanTest() {
+		Loan loan = createLoan();
+		Loan savedLoan = createLoan();
+		savedLoan.setId(1l);
+		Mockito.when(repository.saveAndFlush(loan)).thenReturn(savedLoan);
+		
+		Loan result = service.save(loan);
+		
+		assertThat(result.getId()).isEqualTo(1l);
+		assertThat(loan.getReturned()).isFalse();
+		assertThat(loan.getActiveBookId()).isEqualTo(1l);
+		Mockito.verify(counters).loaned("Fulano");
+	}
+	
+	@Test
+	@DisplayName("Deve lançar erro de negocio ao emprestar um livro já emprestado")
+	public void loanedBookSaveTest() {
+		Loan loan = createLoan();
+		ConstraintViolationException cause = new ConstraintViolationException("duplicate", new SQLException(), 
+				"PUBLIC.UK_LOAN_ACTIVE_BOOK_INDEX_2 ON PUBLIC.LOAN(ACTIVE_BOOK_ID)");
+		Mockito.when(repository.saveAndFlush(loan)).thenThrow(new DataIntegrityViolationException("duplicate", cause));
+		
+		Throwable exception = Assertions.catchThrowable(() -> service.save(loan));
+		
+		assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
+	}
+	
+	@Test
+	@DisplayName("Não deve mascarar outras violações de integridade")
+	public void otherIntegrityViolationTest() {
+		Loan loan = createLoan();
+		Mockito.when(repository.saveAndFlush(loan)).thenThrow(new DataIntegrityViolationException("fk"));
+		
+		Throwable exception = Assertions.catchThrowable(() -> service.save(loan));
+		
+		assertThat(exception).isInstanceOf(DataIntegrityViolationException.class);
+	}
+	
+	@Test
+	@DisplayName("Deve devolver os empréstimos abertos com uma atualização e reportar os já devolvidos e inexistentes")
+	public void returnLoansTest() {
+		Mockito.when(repository.findReturnStates(List.of(1l, 2l, 3l))).thenReturn(List.of(state(1l, false), state(2l, true)));
+		
+		LoanReturnResultDTO result = service.returnLoans(List.of(3l, 1l, 2l, 1l));
+		
+		assertThat(result.getReturned()).containsExactly(1l);
+		assertThat(result.getAlreadyReturned()).containsExactly(2l);
+		assertThat(result.getNotFound()).containsExactly(3l);
+		Mockito.verify(repository).markReturned(List.of(1l));
+		Mockito.verify(counters).returned(Map.of("Fulano", 1l));
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+	}
+	
+	private static LoanReturnState state(Long id, Boolean returned) {
+		return new LoanReturnState() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+			
+			@Override
+			public Boolean getReturned() {
+				return returned;
+			}
+			
+			@Override
+			public String getCustomer() {
+				return "Fulano";
+			}
+		};
+	}
+}
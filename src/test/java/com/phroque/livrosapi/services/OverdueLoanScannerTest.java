@@ -0,0 +1,136 @@
+package com.phroque.livrosapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.phroque.livrosapi.model.entity.Book;
+import com.phroque.livrosapi.model.entity.Loan;
+import com.phroque.livrosapi.model.entity.OverdueLoan;
+import com.phroque.livrosapi.model.repository.LoanRepository;
+import com.phroque.livrosapi.model.repository.OverdueLoanRepository;
+import com.phroque.livrosapi.model.repository.ScanCheckpointRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class OverdueLoanScannerTest {
+
+	static final LocalDate TODAY = LocalDate.of(2022, 6, 30);
+
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Autowired
+	LoanRepository loanRepository;
+	
+	@Autowired
+	OverdueLoanRepository overdueLoanRepository;
+	
+	@Autowired
+	ScanCheckpointRepository checkpointRepository;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@Autowired
+	EntityManager em;
+	
+	@Test
+	@DisplayName("Deve registrar os empréstimos atrasados em blocos e retomar do ponto salvo")
+	public void scanTest() {
+		Loan late1 = persistLoan("1", TODAY.minusDays(30), false);
+		Loan late2 = persistLoan("2", TODAY.minusDays(20), false);
+		persistLoan("3", TODAY.minusDays(20), true);
+		Loan late3 = persistLoan("4", TODAY.minusDays(15), false);
+		Loan onTime = persistLoan("5", TODAY.minusDays(5), false);
+		
+		assertThat(newScanner().scan(TODAY)).isEqualTo(3);
+		
+		assertThat(overdueLoanRepository.findAll())
+			.extracting(OverdueLoan::getLoanId)
+			.containsExactlyInAnyOrder(late1.getId(), late2.getId(), late3.getId());
+		assertThat(overdueLoanRepository.findAll())
+			.filteredOn(overdue -> overdue.getLoanId().equals(late1.getId()))
+			.extracting(OverdueLoan::getDueDate)
+			.containsExactly(TODAY.minusDays(16));
+		assertThat(checkpointRepository.findById(OverdueLoanScanner.CHECKPOINT).get().getLastLoanId()).isEqualTo(late3.getId());
+		
+		// a restarted scanner resumes from the checkpoint and only finds the loans that became overdue since
+		assertThat(newScanner().scan(TODAY)).isZero();
+		assertThat(newScanner().scan(TODAY.plusDays(10))).isEqualTo(1);
+		assertThat(overdueLoanRepository.findAll()).extracting(OverdueLoan::getLoanId).contains(onTime.getId()).hasSize(4);
+	}
+	
+	@Test
+	@DisplayName("Deve registrar cada atraso uma vez com o scan rodando em duas instâncias ao mesmo tempo")
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void concurrentScanTest() throws Exception {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			for(int i = 0; i < 6; i++) {
+				persistLoan("concurrent-" + i, TODAY.minusDays(30 - i), false);
+			}
+		});
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Integer>> scans = new ArrayList<>();
+			for(int i = 0; i < 2; i++) {
+				OverdueLoanScanner scanner = newScanner();
+				scans.add(executor.submit(() -> {
+					start.await();
+					return scanner.scan(TODAY);
+				}));
+			}
+			start.countDown();
+			
+			assertThat(scans.get(0).get() + scans.get(1).get()).isEqualTo(6);
+			assertThat(overdueLoanRepository.count()).isEqualTo(6);
+		} finally {
+			executor.shutdown();
+			transaction.executeWithoutResult(status -> {
+				overdueLoanRepository.deleteAllInBatch();
+				loanRepository.deleteAllInBatch();
+				checkpointRepository.deleteAllInBatch();
+				em.createQuery("delete from Book").executeUpdate();
+			});
+		}
+	}
+	
+	private OverdueLoanScanner newScanner() {
+		return new OverdueLoanScanner(loanRepository, overdueLoanRepository, checkpointRepository, transactionManager, em, 14, 2);
+	}
+	
+	private Loan persistLoan(String isbn, LocalDate loanDate, boolean returned) {
+		Book book = entityManager.persist(Book.builder().title("Aventuras").author("Fulano").isbn(isbn).build());
+		return entityManager.persist(Loan.builder()
+				.book(book)
+				.customer("Fulano")
+				.loanDate(loanDate)
+				.returned(returned)
+				.activeBookId(returned ? null : book.getId())
+				.build());
+	}
+}
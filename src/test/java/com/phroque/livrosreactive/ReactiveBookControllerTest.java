@@ -0,0 +1,123 @@
+package com.phroque.livrosreactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.phroque.livrosapi.dto.BookDTO;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(classes = ReactiveLivrosApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT,
+		properties = "spring.main.web-application-type=reactive",
+		args = "--spring.config.name=" + ReactiveLivrosApplication.CONFIG_NAME)
+@AutoConfigureWebTestClient
+public class ReactiveBookControllerTest {
+
+	static String BOOK_API = "/api/books";
+
+	@Autowired
+	WebTestClient client;
+
+	@Autowired
+	DatabaseClient database;
+
+	private BookDTO create(String isbn) {
+		return client.post().uri(BOOK_API)
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(BookDTO.builder().title("As aventuras").author("Artur").isbn(isbn).build())
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(BookDTO.class).returnResult().getResponseBody();
+	}
+
+	@Test
+	@DisplayName("Deve criar, obter, atualizar, buscar e deletar um livro")
+	public void bookLifecycleTest() {
+		BookDTO created = client.post().uri(BOOK_API)
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(BookDTO.builder().title("As aventuras").author("Artur").isbn("reactive-001").build())
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(BookDTO.class).returnResult().getResponseBody();
+
+		client.get().uri(BOOK_API + "/" + created.getId())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("isbn").isEqualTo("reactive-001");
+
+		client.put().uri(BOOK_API + "/" + created.getId())
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(BookDTO.builder().title("Novas aventuras").author("Artur").build())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody().jsonPath("title").isEqualTo("Novas aventuras").jsonPath("isbn").isEqualTo("reactive-001");
+
+		client.get().uri(BOOK_API + "?title=NOVAS&page=0&size=10")
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+					.jsonPath("content").value(Matchers.hasSize(1))
+					.jsonPath("total").isEqualTo(1)
+					.jsonPath("size").isEqualTo(10)
+					.jsonPath("pageable").doesNotExist();
+
+		client.delete().uri(BOOK_API + "/" + created.getId())
+				.exchange()
+				.expectStatus().isNoContent();
+
+		client.get().uri(BOOK_API + "/" + created.getId())
+				.exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	@DisplayName("Deve lançar erro de negocio ao cadastrar um livro com isbn já utilizado")
+	public void duplicatedIsbnTest() {
+		BookDTO dto = BookDTO.builder().title("As aventuras").author("Artur").isbn("reactive-002").build();
+		client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON).bodyValue(dto)
+				.exchange()
+				.expectStatus().isCreated();
+
+		client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON).bodyValue(dto)
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody()
+					.jsonPath("errors").value(Matchers.hasSize(1))
+					.jsonPath("errors[0]").isEqualTo("Isbn já cadastrado.");
+	}
+
+	@Test
+	@DisplayName("Deve lançar erro de validação quando não houver dados suficientes para criação do livro")
+	public void createInvalidBookTest() {
+		client.post().uri(BOOK_API).contentType(MediaType.APPLICATION_JSON).bodyValue(new BookDTO())
+				.exchange()
+				.expectStatus().isBadRequest()
+				.expectBody().jsonPath("errors").value(Matchers.hasSize(3));
+	}
+
+	@Test
+	@DisplayName("Deve gerar ids dentro do bloco reservado da sequência, fora dos blocos do Hibernate")
+	public void pooledIdsTest() {
+		long first = create("reactive-003").getId();
+		long second = create("reactive-004").getId();
+
+		// the block Hibernate's pooled optimizer would take next
+		long hi = database.sql("select next value for book_seq").map(row -> row.get(0, Long.class)).one().block();
+
+		assertThat(second).isEqualTo(first + 1);
+		assertThat(second).isLessThan(hi - ReactiveBookRepository.ID_BLOCK_SIZE + 1);
+	}
+}
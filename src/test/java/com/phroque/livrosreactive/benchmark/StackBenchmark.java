@@ -0,0 +1,114 @@
+package com.phroque.livrosreactive.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.phroque.livrosapi.LivrosApplication;
+import com.phroque.livrosapi.services.BookTextIndex;
+import com.phroque.livrosreactive.ReactiveLivrosApplication;
+
+/**
+ * Concurrency against latency for the servlet and the reactive stacks: each
+ * operation sends a burst of {@code concurrency} simultaneous requests and
+ * completes when the slowest one answers. Both catalogs are seeded with the
+ * same rows straight through SQL. The embedded H2 driver of R2DBC runs its
+ * statements on the calling thread, so the reactive numbers here are a lower
+ * bound of what a network database would give. Needs the {@code reactive}
+ * profile, which also puts R2DBC on the servlet application's classpath, so
+ * its auto-configuration is turned off there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StackBenchmark {
+
+	static final int CATALOG_SIZE = 20_000;
+	static final String SEED = "insert into book (id, title, author, isbn, version) "
+			+ "select next value for book_seq, 'Titulo ' || x, 'Autor ' || mod(x, 500), 'seed-' || x, 0 "
+			+ "from system_range(1, " + CATALOG_SIZE + ")";
+
+	@Param({ "servlet", "reactive" })
+	private String stack;
+
+	@Param({ "16", "256" })
+	private int concurrency;
+
+	private ConfigurableApplicationContext context;
+	private HttpClient client;
+	private String baseUrl;
+
+	@Setup
+	public void setUp() {
+		if(stack.equals("servlet")) {
+			context = new SpringApplicationBuilder(LivrosApplication.class)
+					.properties("logging.level.root=WARN", "spring.main.banner-mode=off")
+					.run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:stack;DB_CLOSE_ON_EXIT=FALSE", 
+							"--livros.admission.enabled=false", 
+							"--spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration");
+			context.getBean(JdbcTemplate.class).update(SEED);
+			// the seed bypasses the service, index it the way startup would
+			context.getBean(BookTextIndex.class).load();
+		} else {
+			context = ReactiveLivrosApplication.builder()
+					.properties("logging.level.root=WARN", "spring.main.banner-mode=off")
+					.run("--server.port=0");
+			context.getBean(DatabaseClient.class).sql(SEED).then().block();
+		}
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		baseUrl = "http://localhost:" + port + "/api/books";
+		client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	/**
+	 * Fails on any non-2xx answer, so errors are never counted as served.
+	 */
+	@Benchmark
+	public int searchByAuthorBurst() {
+		@SuppressWarnings("unchecked")
+		CompletableFuture<HttpResponse<Void>>[] responses = new CompletableFuture[concurrency];
+		for(int i = 0; i < concurrency; i++) {
+			int author = ThreadLocalRandom.current().nextInt(500);
+			HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?author=autor+" + author + "&size=20")).build();
+			responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+		}
+		CompletableFuture.allOf(responses).join();
+		for(CompletableFuture<HttpResponse<Void>> response : responses) {
+			int status = response.join().statusCode();
+			if(status / 100 != 2) {
+				throw new IllegalStateException("Search answered " + status + ".");
+			}
+		}
+		return responses.length;
+	}
+}